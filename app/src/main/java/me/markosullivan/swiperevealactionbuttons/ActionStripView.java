@@ -0,0 +1,366 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.os.Bundle;
+import android.util.AttributeSet;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.accessibility.AccessibilityEvent;
+
+import androidx.annotation.Nullable;
+import androidx.core.view.ViewCompat;
+import androidx.core.view.accessibility.AccessibilityNodeInfoCompat;
+import androidx.customview.widget.ExploreByTouchHelper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The secondary view of a row as a single view: draws any number of actions, each an icon
+ * on a coloured slot, and hit-tests taps by slot index. Adding actions adds no views.
+ * The slots can be revealed in proportion to how far the row is opened, see
+ * {@link #setRevealFraction(float)}.
+ * Each revealed action is exposed to accessibility services as a virtual view of its own,
+ * with the content description it was added with.
+ */
+public class ActionStripView extends View {
+
+    /**
+     * Notified when an action slot is tapped.
+     */
+    public interface OnActionClickListener {
+        /**
+         * @param index index of the action, in the order the actions were added.
+         */
+        void onActionClick(ActionStripView view, int index);
+    }
+
+    private static final int PRESSED_OVERLAY_COLOR = 0x33000000;
+
+    private static final class Action {
+        final Drawable icon;
+        final int color;
+        final CharSequence contentDescription;
+
+        Action(Drawable icon, int color, CharSequence contentDescription) {
+            this.icon = icon;
+            this.color = color;
+            this.contentDescription = contentDescription;
+        }
+    }
+
+    private final List<Action> mActions = new ArrayList<>();
+    private final Paint mSlotPaint = new Paint();
+    private final Paint mPressedPaint = new Paint();
+    private final ActionTouchHelper mTouchHelper = new ActionTouchHelper(this);
+
+    private int mActionWidth;
+    private boolean mAnchorEnd = true;
+    private float mRevealFraction = 1f;
+    private int mPressedIndex = -1;
+
+    private OnActionClickListener mOnActionClickListener;
+
+    public ActionStripView(Context context) {
+        super(context);
+        init(context, null);
+    }
+
+    public ActionStripView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        init(context, attrs);
+    }
+
+    public ActionStripView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init(context, attrs);
+    }
+
+    /**
+     * Appends an action, the strip is as wide as its actions when its width is wrap_content.
+     *
+     * @param icon               drawn centered in the slot, may be null.
+     * @param color              background colour of the slot.
+     * @param contentDescription read out by accessibility services for the action.
+     */
+    public void addAction(@Nullable Drawable icon, int color, CharSequence contentDescription) {
+        mActions.add(new Action(icon, color, contentDescription));
+        requestLayout();
+        invalidate();
+        mTouchHelper.invalidateRoot();
+    }
+
+    public void clearActions() {
+        mActions.clear();
+        mPressedIndex = -1;
+        requestLayout();
+        invalidate();
+        mTouchHelper.invalidateRoot();
+    }
+
+    public int getActionCount() {
+        return mActions.size();
+    }
+
+    public void setOnActionClickListener(OnActionClickListener listener) {
+        mOnActionClickListener = listener;
+    }
+
+    /**
+     * Shrinks the slots towards their anchor, so they grow as the row opens.
+     *
+     * @param fraction 0 when the row is closed, 1 when fully opened.
+     */
+    public void setRevealFraction(float fraction) {
+        fraction = Math.max(0f, Math.min(1f, fraction));
+        if (fraction != mRevealFraction) {
+            mRevealFraction = fraction;
+            invalidate();
+
+            // the virtual views move with every frame of a slide, only report where it ends
+            if (fraction == 0f || fraction == 1f) {
+                mTouchHelper.invalidateRoot();
+            }
+        }
+    }
+
+    public float getRevealFraction() {
+        return mRevealFraction;
+    }
+
+    /**
+     * @return the index of the action under the point, or -1.
+     */
+    public int getActionIndexAt(float x, float y) {
+        if (y < getPaddingTop() || y >= getHeight() - getPaddingBottom()) {
+            return -1;
+        }
+
+        final float slotWidth = mActionWidth * mRevealFraction;
+        if (slotWidth <= 0) {
+            return -1;
+        }
+
+        final int index = (int) Math.floor((x - getSlotsLeft(slotWidth)) / slotWidth);
+        return index >= 0 && index < mActions.size() ? index : -1;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        final int desiredWidth = getPaddingLeft() + getPaddingRight() + mActions.size() * mActionWidth;
+        setMeasuredDimension(
+                resolveSize(desiredWidth, widthMeasureSpec),
+                getDefaultSize(getSuggestedMinimumHeight(), heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        final int count = mActions.size();
+        final float slotWidth = mActionWidth * mRevealFraction;
+        if (count == 0 || slotWidth <= 0) {
+            return;
+        }
+
+        final int top = getPaddingTop();
+        final int bottom = getHeight() - getPaddingBottom();
+        final float slotsLeft = getSlotsLeft(slotWidth);
+
+        for (int i = 0; i < count; i++) {
+            final Action action = mActions.get(i);
+            final float left = slotsLeft + i * slotWidth;
+            final float right = left + slotWidth;
+
+            mSlotPaint.setColor(action.color);
+            canvas.drawRect(left, top, right, bottom, mSlotPaint);
+
+            if (action.icon != null) {
+                final int iconWidth = action.icon.getIntrinsicWidth();
+                final int iconHeight = action.icon.getIntrinsicHeight();
+                final int iconLeft = (int) (left + (slotWidth - iconWidth) / 2);
+                final int iconTop = top + (bottom - top - iconHeight) / 2;
+
+                // the icon is clipped, not scaled, while its slot is partially revealed
+                canvas.save();
+                canvas.clipRect(left, top, right, bottom);
+                action.icon.setBounds(iconLeft, iconTop, iconLeft + iconWidth, iconTop + iconHeight);
+                action.icon.draw(canvas);
+                canvas.restore();
+            }
+
+            if (i == mPressedIndex) {
+                canvas.drawRect(left, top, right, bottom, mPressedPaint);
+            }
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (!isEnabled()) {
+            return false;
+        }
+
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                setPressedIndex(getActionIndexAt(event.getX(), event.getY()));
+                return mPressedIndex != -1;
+
+            case MotionEvent.ACTION_MOVE:
+                if (mPressedIndex != -1
+                        && getActionIndexAt(event.getX(), event.getY()) != mPressedIndex) {
+                    setPressedIndex(-1);
+                }
+                return true;
+
+            case MotionEvent.ACTION_UP:
+                final int index = mPressedIndex;
+                setPressedIndex(-1);
+                if (index != -1) {
+                    performClick();
+                    performActionClick(index);
+                }
+                return true;
+
+            case MotionEvent.ACTION_CANCEL:
+                setPressedIndex(-1);
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    protected boolean dispatchHoverEvent(MotionEvent event) {
+        return mTouchHelper.dispatchHoverEvent(event) || super.dispatchHoverEvent(event);
+    }
+
+    @Override
+    public boolean dispatchKeyEvent(KeyEvent event) {
+        return mTouchHelper.dispatchKeyEvent(event) || super.dispatchKeyEvent(event);
+    }
+
+    @Override
+    protected void onFocusChanged(boolean gainFocus, int direction, @Nullable Rect previouslyFocusedRect) {
+        super.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+        mTouchHelper.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+    }
+
+    /**
+     * Dispatches a click on the action as if its slot was tapped.
+     */
+    public void performActionClick(int index) {
+        if (mOnActionClickListener != null && index >= 0 && index < mActions.size()) {
+            mOnActionClickListener.onActionClick(this, index);
+        }
+    }
+
+    /**
+     * The slots are anchored to the side of the strip that is revealed first: the end when
+     * the row is dragged from the right edge, the start when dragged from the left.
+     */
+    private float getSlotsLeft(float slotWidth) {
+        if (mAnchorEnd) {
+            return getWidth() - getPaddingRight() - mActions.size() * slotWidth;
+        }
+        return getPaddingLeft();
+    }
+
+    /**
+     * Sets the bounds of the slot of the action, as drawn at the current reveal fraction.
+     */
+    private void getSlotBounds(int index, Rect outBounds) {
+        final float slotWidth = mActionWidth * mRevealFraction;
+        final float left = getSlotsLeft(slotWidth) + index * slotWidth;
+        outBounds.set((int) left, getPaddingTop(), (int) (left + slotWidth), getHeight() - getPaddingBottom());
+    }
+
+    private void setPressedIndex(int index) {
+        if (index != mPressedIndex) {
+            mPressedIndex = index;
+            invalidate();
+        }
+    }
+
+    private void init(Context context, AttributeSet attrs) {
+        mActionWidth = (int) (50 * context.getResources().getDisplayMetrics().density);
+
+        if (attrs != null) {
+            TypedArray a = context.getTheme().obtainStyledAttributes(
+                    attrs,
+                    R.styleable.ActionStripView,
+                    0, 0
+            );
+
+            mActionWidth = a.getDimensionPixelSize(R.styleable.ActionStripView_actionWidth, mActionWidth);
+            mAnchorEnd = a.getBoolean(R.styleable.ActionStripView_anchorEnd, mAnchorEnd);
+            a.recycle();
+        }
+
+        mPressedPaint.setColor(PRESSED_OVERLAY_COLOR);
+        ViewCompat.setAccessibilityDelegate(this, mTouchHelper);
+    }
+
+    /**
+     * One virtual view per action whose slot is revealed, clicking it clicks the action.
+     */
+    private static final class ActionTouchHelper extends ExploreByTouchHelper {
+
+        private final ActionStripView mStrip;
+        private final Rect mBounds = new Rect();
+
+        ActionTouchHelper(ActionStripView strip) {
+            super(strip);
+            mStrip = strip;
+        }
+
+        @Override
+        protected int getVirtualViewAt(float x, float y) {
+            final int index = mStrip.getActionIndexAt(x, y);
+            return index != -1 ? index : INVALID_ID;
+        }
+
+        @Override
+        protected void getVisibleVirtualViews(List<Integer> virtualViewIds) {
+            if (mStrip.mRevealFraction <= 0f) {
+                return;
+            }
+
+            for (int i = 0; i < mStrip.mActions.size(); i++) {
+                virtualViewIds.add(i);
+            }
+        }
+
+        @Override
+        protected void onPopulateNodeForVirtualView(int virtualViewId, AccessibilityNodeInfoCompat node) {
+            // a stale id from before the actions changed still needs bounds and a description
+            final boolean known = virtualViewId < mStrip.mActions.size();
+            if (known) {
+                mStrip.getSlotBounds(virtualViewId, mBounds);
+            } else {
+                mBounds.set(0, 0, 1, 1);
+            }
+
+            node.setContentDescription(known ? mStrip.mActions.get(virtualViewId).contentDescription : "");
+            node.setBoundsInParent(mBounds);
+            node.setClickable(known);
+            if (known) {
+                node.addAction(AccessibilityNodeInfoCompat.ACTION_CLICK);
+            }
+        }
+
+        @Override
+        protected boolean onPerformActionForVirtualView(int virtualViewId, int action, @Nullable Bundle arguments) {
+            if (action != AccessibilityNodeInfoCompat.ACTION_CLICK || virtualViewId >= mStrip.mActions.size()) {
+                return false;
+            }
+
+            mStrip.performActionClick(virtualViewId);
+            sendEventForVirtualView(virtualViewId, AccessibilityEvent.TYPE_VIEW_CLICKED);
+            return true;
+        }
+    }
+}
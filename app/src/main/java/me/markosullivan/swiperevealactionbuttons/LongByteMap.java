@@ -0,0 +1,66 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+/**
+ * Open-addressing map from primitive long keys to byte values.
+ * Neither keys nor values are boxed, so lookups and updates allocate nothing
+ * unless the table has to grow.
+ */
+public final class LongByteMap extends LongKeyTable {
+
+    private static final int DEFAULT_EXPECTED_SIZE = 8;
+
+    private byte[] mValues;
+
+    public LongByteMap() {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+
+    public LongByteMap(int expectedSize) {
+        super(expectedSize);
+        mValues = new byte[mKeys.length];
+    }
+
+    /**
+     * @return the value mapped to the key, or {@code defaultValue} if there is none.
+     */
+    public byte get(long key, byte defaultValue) {
+        int index = indexOf(key);
+        return index < 0 ? defaultValue : mValues[index];
+    }
+
+    public void put(long key, byte value) {
+        mValues[insert(key)] = value;
+        growIfFull();
+    }
+
+    /**
+     * Visits every entry; the order is unspecified.
+     */
+    public void forEach(Visitor visitor) {
+        for (int i = 0; i < mKeys.length; i++) {
+            if (mUsed[i]) {
+                visitor.visit(mKeys[i], mValues[i]);
+            }
+        }
+    }
+
+    public interface Visitor {
+        void visit(long key, byte value);
+    }
+
+    @Override
+    void moveValue(int from, int to) {
+        mValues[to] = mValues[from];
+    }
+
+    @Override
+    void remapValues(int[] newSlots, int capacity) {
+        final byte[] values = new byte[capacity];
+        for (int i = 0; i < newSlots.length; i++) {
+            if (newSlots[i] >= 0) {
+                values[newSlots[i]] = mValues[i];
+            }
+        }
+        mValues = values;
+    }
+}
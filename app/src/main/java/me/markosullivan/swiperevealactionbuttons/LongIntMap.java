@@ -0,0 +1,51 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+/**
+ * Map from primitive long keys to int values, for numbering keys without boxing them,
+ * e.g. the trigrams of {@link MealSearchIndex}. Lookups and updates allocate nothing
+ * unless the table has to grow.
+ */
+public final class LongIntMap extends LongKeyTable {
+
+    private static final int DEFAULT_EXPECTED_SIZE = 8;
+
+    private int[] mValues;
+
+    public LongIntMap() {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+
+    public LongIntMap(int expectedSize) {
+        super(expectedSize);
+        mValues = new int[mKeys.length];
+    }
+
+    /**
+     * @return the value mapped to the key, or {@code defaultValue} if there is none.
+     */
+    public int get(long key, int defaultValue) {
+        int index = indexOf(key);
+        return index < 0 ? defaultValue : mValues[index];
+    }
+
+    public void put(long key, int value) {
+        mValues[insert(key)] = value;
+        growIfFull();
+    }
+
+    @Override
+    void moveValue(int from, int to) {
+        mValues[to] = mValues[from];
+    }
+
+    @Override
+    void remapValues(int[] newSlots, int capacity) {
+        final int[] values = new int[capacity];
+        for (int i = 0; i < newSlots.length; i++) {
+            if (newSlots[i] >= 0) {
+                values[newSlots[i]] = mValues[i];
+            }
+        }
+        mValues = values;
+    }
+}
@@ -0,0 +1,146 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import java.util.Arrays;
+
+/**
+ * The keys of the open-addressing maps with primitive long keys: linear probing over a
+ * power of two table kept at most half full, and backward shift deletion. Subclasses keep
+ * their values in a parallel array of their own primitive type.
+ */
+abstract class LongKeyTable {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    long[] mKeys;
+    boolean[] mUsed;
+    private int mSize;
+    private int mMask;
+
+    LongKeyTable(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        allocateKeys(capacity);
+    }
+
+    /**
+     * Moves the value of slot {@code from} to slot {@code to}, while an entry is removed.
+     */
+    abstract void moveValue(int from, int to);
+
+    /**
+     * Replaces the values after the table grew to {@code capacity} slots: the value of old
+     * slot i goes to slot {@code newSlots[i]}, unless that is -1.
+     */
+    abstract void remapValues(int[] newSlots, int capacity);
+
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    public void remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return;
+        }
+
+        // backward shift deletion keeps probe sequences intact without tombstones
+        int hole = index;
+        int next = (hole + 1) & mMask;
+        while (mUsed[next]) {
+            int home = slot(mKeys[next]);
+            boolean movable = (hole <= next)
+                    ? (home <= hole || home > next)
+                    : (home <= hole && home > next);
+            if (movable) {
+                mKeys[hole] = mKeys[next];
+                moveValue(next, hole);
+                hole = next;
+            }
+            next = (next + 1) & mMask;
+        }
+        mUsed[hole] = false;
+        mSize--;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public void clear() {
+        Arrays.fill(mUsed, false);
+        mSize = 0;
+    }
+
+    /**
+     * @return the slot of the key, or -1 if it is not in the table.
+     */
+    final int indexOf(long key) {
+        int index = slot(key);
+        while (mUsed[index]) {
+            if (mKeys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mMask;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the slot of the key, taken for it if it was not in the table. The caller
+     * stores the value there, then calls {@link #growIfFull()}.
+     */
+    final int insert(long key) {
+        int index = slot(key);
+        while (mUsed[index]) {
+            if (mKeys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mMask;
+        }
+
+        mUsed[index] = true;
+        mKeys[index] = key;
+        mSize++;
+        return index;
+    }
+
+    final void growIfFull() {
+        if (mSize * 2 > mKeys.length) {
+            resize(mKeys.length << 1);
+        }
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mMask;
+    }
+
+    private void allocateKeys(int capacity) {
+        mKeys = new long[capacity];
+        mUsed = new boolean[capacity];
+        mMask = capacity - 1;
+    }
+
+    private void resize(int capacity) {
+        final long[] keys = mKeys;
+        final boolean[] used = mUsed;
+        final int[] newSlots = new int[keys.length];
+
+        allocateKeys(capacity);
+        for (int i = 0; i < keys.length; i++) {
+            newSlots[i] = -1;
+            if (used[i]) {
+                int index = slot(keys[i]);
+                while (mUsed[index]) {
+                    index = (index + 1) & mMask;
+                }
+                mUsed[index] = true;
+                mKeys[index] = keys[i];
+                newSlots[i] = index;
+            }
+        }
+        remapValues(newSlots, capacity);
+    }
+}
@@ -2,6 +2,10 @@ package me.markosullivan.swiperevealactionbuttons;
 
 import androidx.appcompat.app.AppCompatActivity;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.widget.EditText;
+import android.widget.Toast;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
@@ -13,6 +17,39 @@ import java.util.List;
  */
 public class MainActivity extends AppCompatActivity {
 
+    /**
+     * Optional int extra: replaces the meal list with that many generated items,
+     * used to scroll through list sizes like the real meal history.
+     */
+    public static final String EXTRA_GENERATED_ITEM_COUNT = "generated_item_count";
+
+    /**
+     * Optional boolean extra: draws the rows with a flat MealCardView instead of the
+     * CardView stack.
+     */
+    public static final String EXTRA_FLAT_ROWS = "flat_rows";
+
+    /**
+     * Optional boolean extra: leaves the swipe gestures to each row instead of a single
+     * SwipeController on the list, to compare the two.
+     */
+    public static final String EXTRA_ROW_GESTURES = "row_gestures";
+
+    private static final String STATE_OPEN_IDS = "open_ids";
+
+    private static final int PAGE_SIZE = 50;
+    private static final int MAX_PAGES = 6;
+
+    /**
+     * Rows inflated in the background at start, about two screens of rows.
+     */
+    private static final int PRE_INFLATED_ROWS = 20;
+
+    private PagedMealSource pagedMealSource;
+    private MainListAdapter mainListAdapter;
+    private RowViewPool rowViewPool;
+    private MealSearchIndex searchIndex;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -20,8 +57,112 @@ public class MainActivity extends AppCompatActivity {
         RecyclerView recyclerView = findViewById(R.id.recycler_view);
         RecyclerView.LayoutManager layoutManager = new LinearLayoutManager(this);
         recyclerView.setLayoutManager(layoutManager);
-        MainListAdapter mainListAdapter = new MainListAdapter(getMealList());
+
+        final boolean flatRows = getIntent() != null
+                && getIntent().getBooleanExtra(EXTRA_FLAT_ROWS, false);
+        final int viewType = flatRows ? MainListAdapter.VIEW_TYPE_FLAT : MainListAdapter.VIEW_TYPE_CARD;
+
+        // RecycledViewPool keys holders by the view type the adapter gives them, so the
+        // pre-inflated views are queued in the RowViewPool and wrapped in onCreateViewHolder
+        rowViewPool = new RowViewPool(MainListAdapter.getRowLayout(viewType), PRE_INFLATED_ROWS);
+        rowViewPool.preInflate(this, recyclerView, PRE_INFLATED_ROWS);
+        recyclerView.getRecycledViewPool().setMaxRecycledViews(viewType, PRE_INFLATED_ROWS);
+
+        // the history lives in the store, only a window of pages is held in memory
+        final MealStore mealStore = new MealStore(this, getGeneratedItemCount()) {
+            @Override
+            protected List<String> getSeedMeals() {
+                return getMealList();
+            }
+        };
+        pagedMealSource = new PagedMealSource(mealStore, PAGE_SIZE, MAX_PAGES);
+
+        mainListAdapter = new MainListAdapter(pagedMealSource);
+        mainListAdapter.setFlatRows(flatRows);
+        mainListAdapter.setRowViewPool(rowViewPool);
+        mainListAdapter.getSwipeStateBinder().setOpenOnlyOne(true);
+        if (savedInstanceState != null) {
+            mainListAdapter.getSwipeStateBinder().restoreOpenIds(
+                    savedInstanceState.getLongArray(STATE_OPEN_IDS));
+        }
+        mainListAdapter.setOnItemActionListener(new MainListAdapter.OnItemActionListener() {
+            @Override
+            public void onItemAction(int action, int position, String item) {
+                switch (action) {
+                    case ACTION_INFO:
+                        Toast.makeText(MainActivity.this, "INFO CLICKED @" + position, Toast.LENGTH_SHORT).show();
+                        break;
+
+                    case ACTION_EDIT:
+                        Toast.makeText(MainActivity.this, "EDIT CLICKED @" + position, Toast.LENGTH_SHORT).show();
+                        break;
+                }
+            }
+        });
         recyclerView.setAdapter(mainListAdapter);
+
+        final boolean rowGestures = getIntent() != null
+                && getIntent().getBooleanExtra(EXTRA_ROW_GESTURES, false);
+        if (!rowGestures) {
+            new SwipeController(this).attachToRecyclerView(recyclerView);
+        }
+        pagedMealSource.load();
+
+        // while searching the list shows the results, diffed against the previous ones
+        searchIndex = new MealSearchIndex(new MealSearchIndex.Callback() {
+            @Override
+            public void onResults(String query, List<Meal> results) {
+                mainListAdapter.submitList(results);
+            }
+        });
+        searchIndex.build(mealStore);
+        pagedMealSource.setOnStoreChangedListener(new PagedMealSource.OnStoreChangedListener() {
+            @Override
+            public void onStoreChanged() {
+                searchIndex.build(mealStore);
+            }
+        });
+
+        EditText searchBox = findViewById(R.id.search_box);
+        searchBox.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                final String query = s.toString().trim();
+                if (query.length() > 0) {
+                    searchIndex.search(query);
+                    return;
+                }
+
+                searchIndex.cancel();
+                if (mainListAdapter.getPagedSource() != pagedMealSource) {
+                    mainListAdapter.setPagedSource(pagedMealSource);
+                }
+            }
+        });
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putLongArray(STATE_OPEN_IDS, mainListAdapter.getSwipeStateBinder().getOpenIds());
+    }
+
+    @Override
+    protected void onDestroy() {
+        // the index reads the store on its own thread, it stops before the store closes
+        searchIndex.close();
+        pagedMealSource.close();
+        // pre-inflated rows hold this activity as their context
+        rowViewPool.clear();
+        super.onDestroy();
     }
 
     public List<String> getMealList() {
@@ -40,6 +181,28 @@ public class MainActivity extends AppCompatActivity {
         mealList.add("Vegetable stir-fry");
         mealList.add("Sweet potato and orange soup");
         mealList.add("Vegetable Broth");
+
+        final int generatedItemCount = getGeneratedItemCount();
+        if (generatedItemCount > 0) {
+            return generateMealList(mealList, generatedItemCount);
+        }
+        return mealList;
+    }
+
+    private int getGeneratedItemCount() {
+        return getIntent() != null
+                ? getIntent().getIntExtra(EXTRA_GENERATED_ITEM_COUNT, 0)
+                : 0;
+    }
+
+    /**
+     * @return {@code count} unique titles cycling through the given meals.
+     */
+    private List<String> generateMealList(List<String> meals, int count) {
+        List<String> mealList = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            mealList.add(meals.get(i % meals.size()) + " #" + (i + 1));
+        }
         return mealList;
     }
-}
+}
\ No newline at end of file
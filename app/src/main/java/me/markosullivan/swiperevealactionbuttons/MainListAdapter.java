@@ -1,15 +1,31 @@
 package me.markosullivan.swiperevealactionbuttons;
 
+import android.content.Context;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ImageView;
+import android.view.ViewStub;
 import android.widget.TextView;
-import android.widget.Toast;
 
+import androidx.appcompat.content.res.AppCompatResources;
+import androidx.core.content.ContextCompat;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+import androidx.recyclerview.widget.AdapterListUpdateCallback;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
 import androidx.recyclerview.widget.RecyclerView;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * Created by Mark O'Sullivan on 25th February 2018.
@@ -17,53 +33,556 @@ import java.util.List;
 
 public class MainListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
 
-    private List<String> shoppingList;
+    /**
+     * Receives the clicks on the action buttons of a row.
+     */
+    public interface OnItemActionListener {
+        int ACTION_INFO = 0;
+        int ACTION_EDIT = 1;
 
-    public MainListAdapter(List<String> shoppingList) {
-        this.shoppingList = shoppingList;
+        /**
+         * @param action   one of the ACTION_* constants.
+         * @param position the adapter position of the row at the time of the click.
+         * @param item     the item shown by the row.
+         */
+        void onItemAction(int action, int position, String item);
+    }
+
+    /**
+     * Rows built from list_item_main, the card is a CardView stack holding a TextView.
+     */
+    public static final int VIEW_TYPE_CARD = 0;
+
+    /**
+     * Rows built from list_item_main_flat, the card is drawn by a single {@link MealCardView}.
+     */
+    public static final int VIEW_TYPE_FLAT = 1;
+
+    /**
+     * A meal is identified by its store id, its title is its content.
+     */
+    private static final DiffUtil.ItemCallback<Meal> DIFF_CALLBACK = new DiffUtil.ItemCallback<Meal>() {
+        @Override
+        public boolean areItemsTheSame(Meal oldItem, Meal newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(Meal oldItem, Meal newItem) {
+            return oldItem.getTitle().equals(newItem.getTitle());
+        }
+    };
+
+    /**
+     * Rows ahead of the bound one, in the scroll direction, whose titles are precomputed.
+     */
+    private static final int TITLE_PREFETCH_DISTANCE = 10;
+
+    /**
+     * Precomputed titles kept, a few screens of rows.
+     */
+    private static final int TITLE_CACHE_SIZE = 100;
+
+    /**
+     * Payload of the rows whose page loaded, they were placeholders.
+     */
+    private static final Object PAYLOAD_PAGE_LOADED = new Object();
+
+    private static Executor diffExecutor;
+    private static HandlerThread textThread;
+
+    private final AsyncListDiffer<Meal> differ;
+    private final ListUpdateCallback adapterUpdateCallback = new AdapterListUpdateCallback(this);
+
+    /**
+     * Cleared while switching between the list and the paged source, the adapter is then
+     * reset with a single notifyDataSetChanged instead of the differ's notifications.
+     */
+    private boolean dispatchListUpdates = true;
+
+    private PagedMealSource pagedSource;
+    private final SwipeStateBinder swipeStateBinder = new SwipeStateBinder();
+    private OnItemActionListener onItemActionListener;
+    private SwipeGestureRecorder gestureRecorder;
+    private SwipeEventRecorder eventRecorder;
+    private RowViewPool rowViewPool;
+    private boolean flatRows = false;
+
+    private final TitleTextCache titleTextCache = new TitleTextCache(TITLE_CACHE_SIZE, getTextLooper());
+
+    /**
+     * Text params of the rows of the current view type, known once a row is created.
+     */
+    private PrecomputedTextCompat.Params titleParams;
+    private int lastBoundPosition = RecyclerView.NO_POSITION;
+
+    private int createCount = 0;
+    private int bindCount = 0;
+    private long bindTimeNanos = 0;
+
+    public MainListAdapter(List<Meal> shoppingList) {
+        differ = new AsyncListDiffer<>(
+                listUpdateCallback,
+                new AsyncDifferConfig.Builder<>(DIFF_CALLBACK)
+                        .setBackgroundThreadExecutor(getDiffExecutor())
+                        .build());
+        setHasStableIds(true);
+        differ.submitList(shoppingList);
+    }
+
+    /**
+     * Shows the meals of a paged source, see {@link #setPagedSource(PagedMealSource)}.
+     */
+    public MainListAdapter(PagedMealSource pagedSource) {
+        this(Collections.<Meal>emptyList());
+        setPagedSource(pagedSource);
+    }
+
+    /**
+     * Replaces the meals shown by the list. The diff against the current list is computed on
+     * a background thread and dispatched as insert/remove/move/change notifications, a diff
+     * still running when a newer list is submitted is dropped. Rows keep their open state
+     * because it is tracked by store id in the {@link SwipeStateBinder}, the same id the
+     * paged source reports.
+     * The submitted list must not be modified afterwards.
+     */
+    public void submitList(List<Meal> shoppingList) {
+        if (pagedSource != null) {
+            // the differ holds no list while paged, so this submit is applied synchronously
+            pagedSource.setCallback(null);
+            pagedSource = null;
+            dispatchListUpdates = false;
+            differ.submitList(shoppingList);
+            dispatchListUpdates = true;
+            notifyDataSetChanged();
+            return;
+        }
+
+        differ.submitList(shoppingList);
+    }
+
+    /**
+     * Shows the meals of the source instead of a list. Only the pages around the visible
+     * rows are held in memory, rows of pages still loading are bound as empty placeholders.
+     */
+    public void setPagedSource(PagedMealSource source) {
+        if (pagedSource != null) {
+            pagedSource.setCallback(null);
+        }
+
+        pagedSource = source;
+        dispatchListUpdates = false;
+        differ.submitList(null);
+        dispatchListUpdates = true;
+
+        if (source != null) {
+            source.setCallback(pagedSourceCallback);
+        }
+        notifyDataSetChanged();
+    }
+
+    /**
+     * @return the paged source shown by the list, null while it shows a list.
+     */
+    public PagedMealSource getPagedSource() {
+        return pagedSource;
+    }
+
+    /**
+     * @return the meal at the position, or null if it is a placeholder still loading.
+     */
+    public String getItem(int position) {
+        return pagedSource != null
+                ? pagedSource.getTitle(position)
+                : getCurrentList().get(position).getTitle();
+    }
+
+    /**
+     * @return the meal at the position if it is in memory, without loading any page.
+     */
+    private String peekItem(int position) {
+        return pagedSource != null
+                ? pagedSource.peekTitle(position)
+                : getCurrentList().get(position).getTitle();
+    }
+
+    /**
+     * @return the meals currently shown by the list.
+     */
+    public List<Meal> getCurrentList() {
+        return differ.getCurrentList();
+    }
+
+    private final ListUpdateCallback listUpdateCallback = new ListUpdateCallback() {
+        @Override
+        public void onInserted(int position, int count) {
+            if (dispatchListUpdates) {
+                adapterUpdateCallback.onInserted(position, count);
+            }
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            if (dispatchListUpdates) {
+                adapterUpdateCallback.onRemoved(position, count);
+            }
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            if (dispatchListUpdates) {
+                adapterUpdateCallback.onMoved(fromPosition, toPosition);
+            }
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            if (dispatchListUpdates) {
+                adapterUpdateCallback.onChanged(position, count, payload);
+            }
+        }
+    };
+
+    private final PagedMealSource.Callback pagedSourceCallback = new PagedMealSource.Callback() {
+        @Override
+        public void onCountLoaded(int count) {
+            notifyDataSetChanged();
+        }
+
+        @Override
+        public void onRangeLoaded(int start, int count) {
+            // the rows rebind right away, most of the page is measured before it scrolls in
+            prefetchTitles(start, count);
+            // with a payload each row is rebound in its own holder, its placeholder id is not
+            // matched against the store id it gets
+            notifyItemRangeChanged(start, count, PAYLOAD_PAGE_LOADED);
+        }
+    };
+
+    /**
+     * One thread shared by every adapter: diffs of the meal list never run in parallel and
+     * do not compete with the other users of the default background pool.
+     */
+    private static synchronized Executor getDiffExecutor() {
+        if (diffExecutor == null) {
+            diffExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "MainListAdapter-diff");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return diffExecutor;
+    }
+
+    /**
+     * One thread shared by every adapter for measuring titles. A looper rather than an
+     * executor: its messages are pooled, queueing a title allocates nothing.
+     */
+    private static synchronized Looper getTextLooper() {
+        if (textThread == null) {
+            textThread = new HandlerThread("MainListAdapter-text", Process.THREAD_PRIORITY_BACKGROUND);
+            textThread.start();
+        }
+        return textThread.getLooper();
+    }
+
+    public void setOnItemActionListener(OnItemActionListener listener) {
+        this.onItemActionListener = listener;
+    }
+
+    /**
+     * Keeps the open/closed state of the rows by item id, so recycled rows restore
+     * their own state instead of the one of the last item they displayed.
+     */
+    public SwipeStateBinder getSwipeStateBinder() {
+        return swipeStateBinder;
+    }
+
+    /**
+     * @param flatRows whether new rows draw their card with a {@link MealCardView} instead of
+     *                 the CardView stack. Rows of the other kind are not reused.
+     */
+    public void setFlatRows(boolean flatRows) {
+        if (this.flatRows != flatRows) {
+            this.flatRows = flatRows;
+            titleParams = null;
+            notifyDataSetChanged();
+        }
+    }
+
+    public boolean isFlatRows() {
+        return flatRows;
+    }
+
+    /**
+     * @return the layout of the rows of the view type.
+     */
+    public static int getRowLayout(int viewType) {
+        return viewType == VIEW_TYPE_FLAT ? R.layout.list_item_main_flat : R.layout.list_item_main;
+    }
+
+    /**
+     * Takes the views of new rows from the pool, see {@link RowViewPool}.
+     */
+    public void setRowViewPool(RowViewPool pool) {
+        this.rowViewPool = pool;
+    }
+
+    /**
+     * Records the swipe gestures of every row into the recorder, null to stop recording.
+     * Rows already bound pick it up on their next bind.
+     */
+    public void setGestureRecorder(SwipeGestureRecorder recorder) {
+        this.gestureRecorder = recorder;
+    }
+
+    /**
+     * Records the raw touch events of every row into the recorder, null to stop recording.
+     * Rows already bound pick it up on their next bind.
+     */
+    public void setEventRecorder(SwipeEventRecorder recorder) {
+        this.eventRecorder = recorder;
+    }
+
+    /**
+     * Titles precomputed off the main thread, see {@link TitleTextCache#getHitRate()}.
+     */
+    public TitleTextCache getTitleTextCache() {
+        return titleTextCache;
+    }
+
+    /**
+     * @return the number of onCreateViewHolder calls since the stats were last reset.
+     */
+    public int getCreateCount() {
+        return createCount;
+    }
+
+    /**
+     * @return the number of onBindViewHolder calls since the stats were last reset.
+     */
+    public int getBindCount() {
+        return bindCount;
+    }
+
+    /**
+     * @return the wall time spent in onBindViewHolder since the stats were last reset.
+     */
+    public long getBindTimeNanos() {
+        return bindTimeNanos;
+    }
+
+    public void resetStats() {
+        createCount = 0;
+        bindCount = 0;
+        bindTimeNanos = 0;
     }
 
     @Override
     public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.list_item_main, parent, false);
-        return new MainListItem(view);
+        if (BuildConfig.SWIPE_TRACING) {
+            SwipeTrace.beginSection(SwipeTrace.ADAPTER_CREATE);
+            try {
+                return createMainListItem(parent, viewType);
+            } finally {
+                SwipeTrace.endSection();
+            }
+        }
+        return createMainListItem(parent, viewType);
+    }
+
+    private MainListItem createMainListItem(ViewGroup parent, int viewType) {
+        createCount++;
+        final int layoutRes = getRowLayout(viewType);
+        View view = rowViewPool != null && rowViewPool.getLayoutRes() == layoutRes
+                ? rowViewPool.acquire(parent)
+                : LayoutInflater.from(parent.getContext()).inflate(layoutRes, parent, false);
+        MainListItem mainListItem = new MainListItem(view, this);
+        if (titleParams == null && viewType == (flatRows ? VIEW_TYPE_FLAT : VIEW_TYPE_CARD)) {
+            titleParams = mainListItem.getTitleParams();
+        }
+        return mainListItem;
     }
 
     @Override
-    public void onBindViewHolder(RecyclerView.ViewHolder holder, final int position) {
-        MainListItem mainListItem = (MainListItem) holder;
-        mainListItem.mealTV.setText(shoppingList.get(position));
-        mainListItem.infoButton.setOnClickListener(new View.OnClickListener() {
-            @Override
-            public void onClick(View v) {
-                Toast.makeText(v.getContext(), "INFO CLICKED @" + position, Toast.LENGTH_SHORT).show();
+    public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+        if (BuildConfig.SWIPE_TRACING) {
+            SwipeTrace.beginSection(SwipeTrace.ADAPTER_BIND);
+            try {
+                bindMainListItem((MainListItem) holder, position);
+            } finally {
+                SwipeTrace.endSection();
             }
-        });
-        mainListItem.editButton.setOnClickListener(new View.OnClickListener() {
-            @Override
-            public void onClick(View v) {
-                Toast.makeText(v.getContext(), "EDIT CLICKED @" + position, Toast.LENGTH_SHORT).show();
+        } else {
+            bindMainListItem((MainListItem) holder, position);
+        }
+    }
+
+    private void bindMainListItem(MainListItem mainListItem, int position) {
+        final long bindStart = System.nanoTime();
+
+        final long itemId = getItemId(position);
+        if (PagedMealSource.isPlaceholderId(itemId)) {
+            // placeholder, rebound once its page is loaded
+            swipeStateBinder.unbind(mainListItem.swipeRevealLayout);
+        } else {
+            swipeStateBinder.bind(mainListItem.swipeRevealLayout, itemId);
+        }
+        mainListItem.swipeRevealLayout.setGestureRecorder(gestureRecorder);
+        mainListItem.swipeRevealLayout.setEventRecorder(eventRecorder);
+        final String title = getItem(position);
+        mainListItem.setTitle(title, title != null && titleParams != null
+                ? titleTextCache.get(title, titleParams)
+                : null);
+
+        final boolean scrollingUp = position < lastBoundPosition;
+        lastBoundPosition = position;
+        if (scrollingUp) {
+            prefetchTitles(position - TITLE_PREFETCH_DISTANCE, TITLE_PREFETCH_DISTANCE);
+        } else {
+            prefetchTitles(position + 1, TITLE_PREFETCH_DISTANCE);
+        }
+
+        bindCount++;
+        bindTimeNanos += System.nanoTime() - bindStart;
+    }
+
+    private void prefetchTitles(int start, int count) {
+        if (titleParams == null) {
+            return;
+        }
+
+        final int end = Math.min(start + count, getItemCount());
+        for (int position = Math.max(start, 0); position < end; position++) {
+            final String title = peekItem(position);
+            if (title != null) {
+                titleTextCache.prefetch(title, titleParams);
             }
-        });
+        }
+    }
+
+    private void dispatchItemAction(int action, int position) {
+        final String item = getItem(position);
+        if (onItemActionListener != null && item != null) {
+            onItemActionListener.onItemAction(action, position, item);
+        }
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return flatRows ? VIEW_TYPE_FLAT : VIEW_TYPE_CARD;
     }
 
     @Override
     public int getItemCount() {
-        return shoppingList.size();
+        return pagedSource != null ? pagedSource.getCount() : getCurrentList().size();
     }
 
-    public static class MainListItem extends RecyclerView.ViewHolder {
+    @Override
+    public long getItemId(int position) {
+        if (pagedSource != null) {
+            return pagedSource.getId(position);
+        }
+        return getCurrentList().get(position).getId();
+    }
 
+    public static class MainListItem extends RecyclerView.ViewHolder
+            implements ActionStripView.OnActionClickListener, SwipeRevealLayout.SwipeListener,
+            ViewStub.OnInflateListener {
+
+        private final MainListAdapter adapter;
+
+        protected SwipeRevealLayout swipeRevealLayout;
+        // only one of the two is present, depending on the view type
         protected TextView mealTV;
-        protected ImageView infoButton;
-        protected ImageView editButton;
+        protected MealCardView mealCard;
+        protected ActionStripView actionStrip;
 
-        protected MainListItem(View itemView) {
+        protected MainListItem(View itemView, MainListAdapter adapter) {
             super(itemView);
+            this.adapter = adapter;
+            swipeRevealLayout = (SwipeRevealLayout) itemView;
             mealTV = itemView.findViewById(R.id.meal_tv);
-            infoButton = itemView.findViewById(R.id.info_button);
-            editButton= itemView.findViewById(R.id.edit_button);
+            mealCard = itemView.findViewById(R.id.meal_card);
+
+            // the action buttons only exist once the row is first swiped or opened
+            ViewStub actionsStub = itemView.findViewById(R.id.actions_stub);
+            actionsStub.setOnInflateListener(this);
+            swipeRevealLayout.setSwipeListener(this);
+        }
+
+        /**
+         * @param precomputed the title measured ahead with {@link #getTitleParams()}, or null.
+         */
+        void setTitle(String title, PrecomputedTextCompat precomputed) {
+            if (mealCard != null) {
+                mealCard.setText(precomputed != null ? precomputed : title);
+            } else if (precomputed != null) {
+                TextViewCompat.setPrecomputedText(mealTV, precomputed);
+            } else {
+                mealTV.setText(title);
+            }
+        }
+
+        /**
+         * @return the params the title of this row is laid out with.
+         */
+        PrecomputedTextCompat.Params getTitleParams() {
+            return mealCard != null
+                    ? mealCard.getTextMetricsParams()
+                    : TextViewCompat.getTextMetricsParams(mealTV);
+        }
+
+        @Override
+        public void onInflate(ViewStub stub, View inflated) {
+            final Context context = inflated.getContext();
+            actionStrip = (ActionStripView) inflated;
+
+            // added in the order of the ACTION_* constants, the slot index is the action
+            actionStrip.addAction(AppCompatResources.getDrawable(context, R.drawable.ic_info_outline),
+                    ContextCompat.getColor(context, R.color.actionInfo),
+                    context.getString(R.string.action_info));
+            actionStrip.addAction(AppCompatResources.getDrawable(context, R.drawable.ic_edit),
+                    ContextCompat.getColor(context, R.color.actionEdit),
+                    context.getString(R.string.action_edit));
+
+            // created once per holder, the position is resolved when the click happens
+            actionStrip.setOnActionClickListener(this);
+            actionStrip.setRevealFraction(swipeRevealLayout.isOpened() ? 1f : 0f);
+        }
+
+        @Override
+        public void onActionClick(ActionStripView view, int index) {
+            final int position = getAdapterPosition();
+            if (position == RecyclerView.NO_POSITION) {
+                return;
+            }
+
+            adapter.dispatchItemAction(index, position);
+        }
+
+        @Override
+        public void onClosed(SwipeRevealLayout view) {
+            if (actionStrip != null) {
+                actionStrip.setRevealFraction(0f);
+            }
+        }
+
+        @Override
+        public void onOpened(SwipeRevealLayout view) {
+            if (actionStrip != null) {
+                actionStrip.setRevealFraction(1f);
+            }
+        }
+
+        @Override
+        public void onSlide(SwipeRevealLayout view, float slideOffset) {
+            if (actionStrip != null) {
+                actionStrip.setRevealFraction(slideOffset);
+            }
         }
     }
 }
@@ -0,0 +1,29 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+/**
+ * A meal of the history: its id in the {@link MealStore} and its title. The id identifies
+ * the meal wherever it is shown, in the paged history as in search results.
+ */
+public final class Meal {
+
+    private final long id;
+    private final String title;
+
+    public Meal(long id, String title) {
+        this.id = id;
+        this.title = title;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    @Override
+    public String toString() {
+        return title;
+    }
+}
@@ -0,0 +1,254 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Outline;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+import android.os.Build;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextDirectionHeuristic;
+import android.text.TextDirectionHeuristics;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.View;
+import android.view.ViewOutlineProvider;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import androidx.core.text.PrecomputedTextCompat;
+
+/**
+ * Flat replacement of the nested FrameLayout, CardView, FrameLayout and TextView of a meal
+ * row: a single view that draws the rounded card, its shadow and the title in one onDraw.
+ * The title is laid out once into a StaticLayout and reused until the text or the width
+ * changes. Text precomputed with {@link #getTextMetricsParams()} is laid out from its
+ * measurements on Pie and later instead of being measured again. From Lollipop the shadow is the elevation shadow of a rounded outline, drawn by
+ * the render thread, before that a translucent rounded rect is drawn under the card.
+ */
+public class MealCardView extends View {
+
+    private static final int DEFAULT_CARD_COLOR = Color.WHITE;
+    private static final int PRE_LOLLIPOP_SHADOW_COLOR = 0x22000000;
+
+    /**
+     * Line breaking of the title, the defaults of PrecomputedTextCompat.Params and TextView.
+     * StaticLayout only reuses precomputed text whose params match its own.
+     */
+    private static final int BREAK_STRATEGY = Layout.BREAK_STRATEGY_HIGH_QUALITY;
+    private static final int HYPHENATION_FREQUENCY = Layout.HYPHENATION_FREQUENCY_NORMAL;
+    private static final TextDirectionHeuristic TEXT_DIRECTION = TextDirectionHeuristics.FIRSTSTRONG_LTR;
+
+    private final TextPaint mTextPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint mCardPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint mShadowPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF mCardRect = new RectF();
+    private final RectF mShadowRect = new RectF();
+
+    private float mCardMargin;
+    private float mCardPadding;
+    private float mCornerRadius;
+    private float mCardElevation;
+
+    private CharSequence mText = "";
+    private StaticLayout mTextLayout;
+
+    public MealCardView(Context context) {
+        super(context);
+        init(context, null);
+    }
+
+    public MealCardView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        init(context, attrs);
+    }
+
+    public MealCardView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init(context, attrs);
+    }
+
+    /**
+     * Sets the title. Only the text layout is dropped, the size of the view does not depend
+     * on the text so no layout pass is requested.
+     */
+    public void setText(@Nullable CharSequence text) {
+        if (text == null) {
+            text = "";
+        }
+
+        if (TextUtils.equals(mText, text)) {
+            return;
+        }
+
+        mText = text;
+        mTextLayout = null;
+        setContentDescription(text);
+        invalidate();
+    }
+
+    public CharSequence getText() {
+        return mText;
+    }
+
+    /**
+     * @return the width available to the title, 0 before the view is laid out.
+     */
+    public int getTextWidth() {
+        return Math.max(0, (int) (mCardRect.width() - 2 * mCardPadding));
+    }
+
+    public TextPaint getTextPaint() {
+        return mTextPaint;
+    }
+
+    /**
+     * @return the params to precompute titles with, see {@link #setText(CharSequence)}.
+     */
+    public PrecomputedTextCompat.Params getTextMetricsParams() {
+        final PrecomputedTextCompat.Params.Builder builder =
+                new PrecomputedTextCompat.Params.Builder(mTextPaint).setTextDirection(TEXT_DIRECTION);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            builder.setBreakStrategy(BREAK_STRATEGY).setHyphenationFrequency(HYPHENATION_FREQUENCY);
+        }
+        return builder.build();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        setMeasuredDimension(
+                getDefaultSize(getSuggestedMinimumWidth(), widthMeasureSpec),
+                getDefaultSize(getSuggestedMinimumHeight(), heightMeasureSpec));
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+
+        mCardRect.set(mCardMargin, mCardMargin, w - mCardMargin, h - mCardMargin);
+        mShadowRect.set(mCardRect);
+        mShadowRect.offset(0, mCardElevation / 2);
+
+        if (mTextLayout != null && mTextLayout.getWidth() != getTextWidth()) {
+            mTextLayout = null;
+        }
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            invalidateOutline();
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP && mCardElevation > 0) {
+            canvas.drawRoundRect(mShadowRect, mCornerRadius, mCornerRadius, mShadowPaint);
+        }
+        canvas.drawRoundRect(mCardRect, mCornerRadius, mCornerRadius, mCardPaint);
+
+        final StaticLayout textLayout = getTextLayout();
+        if (textLayout == null) {
+            return;
+        }
+
+        // vertically centered in the card, like the gravity of the TextView it replaces
+        final float textLeft = mCardRect.left + mCardPadding;
+        final float textTop = mCardRect.top
+                + Math.max(mCardPadding, (mCardRect.height() - textLayout.getHeight()) / 2);
+
+        canvas.save();
+        canvas.clipRect(textLeft, mCardRect.top + mCardPadding,
+                mCardRect.right - mCardPadding, mCardRect.bottom - mCardPadding);
+        canvas.translate(textLeft, textTop);
+        textLayout.draw(canvas);
+        canvas.restore();
+    }
+
+    @SuppressWarnings("deprecation")
+    private StaticLayout getTextLayout() {
+        final int textWidth = getTextWidth();
+        if (textWidth <= 0 || mText.length() == 0) {
+            return null;
+        }
+
+        if (mTextLayout == null) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+                mTextLayout = buildTextLayout(textWidth);
+            } else {
+                mTextLayout = new StaticLayout(mText, mTextPaint, textWidth,
+                        Layout.Alignment.ALIGN_NORMAL, 1f, 0f, false);
+            }
+        }
+        return mTextLayout;
+    }
+
+    @RequiresApi(Build.VERSION_CODES.M)
+    private StaticLayout buildTextLayout(int textWidth) {
+        return StaticLayout.Builder.obtain(mText, 0, mText.length(), mTextPaint, textWidth)
+                .setAlignment(Layout.Alignment.ALIGN_NORMAL)
+                .setIncludePad(false)
+                .setBreakStrategy(BREAK_STRATEGY)
+                .setHyphenationFrequency(HYPHENATION_FREQUENCY)
+                .setTextDirection(TEXT_DIRECTION)
+                .build();
+    }
+
+    private void init(Context context, AttributeSet attrs) {
+        final float density = context.getResources().getDisplayMetrics().density;
+
+        float textSize = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 20,
+                context.getResources().getDisplayMetrics());
+        int textColor = Color.BLACK;
+        int cardColor = DEFAULT_CARD_COLOR;
+        mCardMargin = 5 * density;
+        mCardPadding = 10 * density;
+        mCornerRadius = 8 * density;
+        mCardElevation = 5 * density;
+
+        if (attrs != null) {
+            TypedArray a = context.getTheme().obtainStyledAttributes(
+                    attrs,
+                    R.styleable.MealCardView,
+                    0, 0
+            );
+
+            textSize = a.getDimension(R.styleable.MealCardView_cardTitleSize, textSize);
+            textColor = a.getColor(R.styleable.MealCardView_cardTitleColor, textColor);
+            cardColor = a.getColor(R.styleable.MealCardView_cardColor, cardColor);
+            mCardMargin = a.getDimension(R.styleable.MealCardView_cardMargin, mCardMargin);
+            mCardPadding = a.getDimension(R.styleable.MealCardView_cardPadding, mCardPadding);
+            mCornerRadius = a.getDimension(R.styleable.MealCardView_cardRadius, mCornerRadius);
+            mCardElevation = a.getDimension(R.styleable.MealCardView_cardShadowElevation, mCardElevation);
+            a.recycle();
+        }
+
+        mTextPaint.setTextSize(textSize);
+        mTextPaint.setColor(textColor);
+        mTextPaint.setTypeface(Typeface.create("sans-serif-smallcaps", Typeface.NORMAL));
+        mCardPaint.setColor(cardColor);
+        mShadowPaint.setColor(PRE_LOLLIPOP_SHADOW_COLOR);
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            initOutline();
+        }
+    }
+
+    @RequiresApi(Build.VERSION_CODES.LOLLIPOP)
+    private void initOutline() {
+        setElevation(mCardElevation);
+        setOutlineProvider(new ViewOutlineProvider() {
+            @Override
+            public void getOutline(View view, Outline outline) {
+                outline.setRoundRect(
+                        (int) mCardRect.left, (int) mCardRect.top,
+                        (int) mCardRect.right, (int) mCardRect.bottom,
+                        mCornerRadius);
+            }
+        });
+    }
+}
@@ -0,0 +1,346 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.MainThread;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Substring search over the meal titles, backed by a trigram index built on a background
+ * thread from the pages of the {@link MealStore}, so the results carry the store ids the
+ * paged list shows. A query of three characters or more only looks at the titles holding all of
+ * its trigrams, and a query that extends the previous one only looks at the previous
+ * results. Searches run one at a time on the index thread; starting a search cancels the
+ * one in flight, whose results are never delivered.
+ * Matching ignores case. Results keep the order of the store. The index is built again
+ * whenever the meals of the store change, see {@link #build(MealStore)}.
+ * Apart from the background work itself, all methods must be called on the main thread.
+ */
+public class MealSearchIndex {
+
+    public interface Callback {
+        /**
+         * @param query   the query as passed to {@link #search(String)}.
+         * @param results the matching meals, not to be modified.
+         */
+        void onResults(String query, List<Meal> results);
+    }
+
+    private static final int GRAM = 3;
+
+    /**
+     * Meals read from the store at a time while indexing.
+     */
+    private static final int INDEX_PAGE_SIZE = 500;
+
+    /**
+     * Titles checked between two looks at the cancellation flag.
+     */
+    private static final int CANCEL_CHECK_INTERVAL = 1024;
+
+    private static final int[] NO_IDS = new int[0];
+
+    private static final int NO_GRAM = -1;
+
+    private final ExecutorService executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Callback callback;
+
+    /**
+     * Bumped on the main thread by every search, a search seeing it change stops early.
+     */
+    private volatile int generation = 0;
+    private Future<?> inFlight;
+    private String activeQuery;
+
+    /**
+     * Bumped on the main thread by every build, a build seeing it change stops early: the
+     * newer one is queued behind it.
+     */
+    private volatile int buildGeneration = 0;
+    private volatile boolean closed = false;
+
+    // owned by the index thread. The ids of the titles holding the trigram numbered g are
+    // postings[postingStarts[g]] to postings[postingStarts[g + 1] - 1], in increasing order
+    private Meal[] meals = new Meal[0];
+    private String[] lowerTitles = new String[0];
+    private LongIntMap gramNumbers = new LongIntMap();
+    private int[] postingStarts = new int[1];
+    private int[] postings = NO_IDS;
+    private String lastQuery;
+    private int[] lastResult;
+
+    public MealSearchIndex(Callback callback) {
+        this.callback = callback;
+        executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "MealSearchIndex");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Reads every meal of the store page by page on the index thread and indexes them,
+     * searches started meanwhile wait for it. Call again once the meals of the store change:
+     * the build in flight is cancelled, and so is the search in flight, which then runs
+     * again on the new index.
+     */
+    @MainThread
+    public void build(final MealStore store) {
+        final int thisBuild = ++buildGeneration;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    index(store, thisBuild);
+                } catch (IllegalStateException e) {
+                    // the store was closed along with the index while it was read
+                    if (!closed) {
+                        throw e;
+                    }
+                }
+            }
+        });
+
+        // results found on the old index may hold ids the store no longer has
+        if (activeQuery != null) {
+            search(activeQuery);
+        }
+    }
+
+    /**
+     * Finds the titles containing the query and delivers them to the callback on the main
+     * thread, unless another search is started first.
+     */
+    @MainThread
+    public void search(final String query) {
+        activeQuery = query;
+        final int searchGeneration = ++generation;
+        if (inFlight != null) {
+            inFlight.cancel(false);
+        }
+
+        inFlight = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                final List<Meal> results = find(query.toLowerCase(Locale.ROOT), searchGeneration);
+                if (results == null) {
+                    return;
+                }
+
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!closed && searchGeneration == generation) {
+                            callback.onResults(query, results);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Cancels the search in flight, its results are dropped.
+     */
+    @MainThread
+    public void cancel() {
+        activeQuery = null;
+        generation++;
+        if (inFlight != null) {
+            inFlight.cancel(false);
+            inFlight = null;
+        }
+    }
+
+    /**
+     * Stops the index thread, pending results are dropped. Close the index before the store
+     * it is built from.
+     */
+    @MainThread
+    public void close() {
+        closed = true;
+        cancel();
+        executor.shutdown();
+    }
+
+    private void index(MealStore store, int thisBuild) {
+        final long[] pageIds = new long[INDEX_PAGE_SIZE];
+        final String[] pageTitles = new String[INDEX_PAGE_SIZE];
+
+        // first pass while streaming: number the trigrams and count the titles holding each
+        Meal[] newMeals = new Meal[INDEX_PAGE_SIZE];
+        String[] newLowerTitles = new String[INDEX_PAGE_SIZE];
+        final LongIntMap newGramNumbers = new LongIntMap();
+        int[] gramCounts = new int[256];
+        int[] lastCounted = new int[256];
+        int count = 0;
+        long lastId = PagedMealSource.NO_ID;
+        int loaded;
+        do {
+            if (closed || thisBuild != buildGeneration) {
+                return;
+            }
+
+            loaded = store.loadPageAfter(lastId, INDEX_PAGE_SIZE, pageIds, pageTitles);
+            if (count + loaded > newMeals.length) {
+                newMeals = Arrays.copyOf(newMeals, Math.max(newMeals.length * 2, count + loaded));
+                newLowerTitles = Arrays.copyOf(newLowerTitles, newMeals.length);
+            }
+
+            for (int i = 0; i < loaded; i++, count++) {
+                final String lower = pageTitles[i].toLowerCase(Locale.ROOT);
+                newMeals[count] = new Meal(pageIds[i], pageTitles[i]);
+                newLowerTitles[count] = lower;
+
+                for (int j = 0; j + GRAM <= lower.length(); j++) {
+                    final long gram = gramAt(lower, j);
+                    int number = newGramNumbers.get(gram, NO_GRAM);
+                    if (number == NO_GRAM) {
+                        number = newGramNumbers.size();
+                        newGramNumbers.put(gram, number);
+                        if (number == gramCounts.length) {
+                            gramCounts = Arrays.copyOf(gramCounts, number * 2);
+                            lastCounted = Arrays.copyOf(lastCounted, number * 2);
+                        }
+                        lastCounted[number] = -1;
+                    }
+                    if (lastCounted[number] != count) {
+                        // a trigram occurring twice in the title is counted once
+                        lastCounted[number] = count;
+                        gramCounts[number]++;
+                    }
+                }
+            }
+            if (loaded > 0) {
+                lastId = pageIds[loaded - 1];
+            }
+        } while (loaded == INDEX_PAGE_SIZE);
+
+        // second pass: fill every posting list in one array, ids come in increasing order
+        final int gramCount = newGramNumbers.size();
+        final int[] newPostingStarts = new int[gramCount + 1];
+        for (int g = 0; g < gramCount; g++) {
+            newPostingStarts[g + 1] = newPostingStarts[g] + gramCounts[g];
+        }
+        final int[] newPostings = new int[newPostingStarts[gramCount]];
+        final int[] fill = Arrays.copyOf(newPostingStarts, gramCount);
+        for (int id = 0; id < count; id++) {
+            final String lower = newLowerTitles[id];
+            for (int j = 0; j + GRAM <= lower.length(); j++) {
+                final int number = newGramNumbers.get(gramAt(lower, j), NO_GRAM);
+                if (fill[number] == newPostingStarts[number] || newPostings[fill[number] - 1] != id) {
+                    newPostings[fill[number]++] = id;
+                }
+            }
+        }
+
+        meals = Arrays.copyOf(newMeals, count);
+        lowerTitles = Arrays.copyOf(newLowerTitles, count);
+        gramNumbers = newGramNumbers;
+        postingStarts = newPostingStarts;
+        postings = newPostings;
+        lastQuery = null;
+        lastResult = null;
+    }
+
+    /**
+     * @return the matching meals, or null if the search was cancelled.
+     */
+    private List<Meal> find(String query, int searchGeneration) {
+        final int[] candidates;
+        if (lastQuery != null && query.contains(lastQuery)) {
+            // extends the previous query: its results hold every match
+            candidates = lastResult;
+        } else if (query.length() >= GRAM) {
+            candidates = intersectPostings(query);
+        } else {
+            candidates = null;
+        }
+
+        final int candidateCount = candidates != null ? candidates.length : meals.length;
+        final int[] matches = new int[candidateCount];
+        int matchCount = 0;
+        for (int i = 0; i < candidateCount; i++) {
+            if (i % CANCEL_CHECK_INTERVAL == 0 && searchGeneration != generation) {
+                return null;
+            }
+
+            // the trigrams only narrow the candidates, they may sit apart in the title
+            final int id = candidates != null ? candidates[i] : i;
+            if (lowerTitles[id].contains(query)) {
+                matches[matchCount++] = id;
+            }
+        }
+
+        lastQuery = query;
+        lastResult = Arrays.copyOf(matches, matchCount);
+
+        final List<Meal> results = new ArrayList<>(matchCount);
+        for (int i = 0; i < matchCount; i++) {
+            results.add(meals[matches[i]]);
+        }
+        return results;
+    }
+
+    /**
+     * @return the ids of the titles holding every trigram of the query, sorted.
+     */
+    private int[] intersectPostings(String query) {
+        int[] result = null;
+        for (int i = 0; i + GRAM <= query.length(); i++) {
+            final int number = gramNumbers.get(gramAt(query, i), NO_GRAM);
+            if (number == NO_GRAM) {
+                return NO_IDS;
+            }
+
+            final int start = postingStarts[number];
+            final int end = postingStarts[number + 1];
+            result = result == null
+                    ? Arrays.copyOfRange(postings, start, end)
+                    : intersect(result, postings, start, end);
+            if (result.length == 0) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the ids both in {@code a} and in {@code b[start]} to {@code b[end - 1]}.
+     */
+    private static int[] intersect(int[] a, int[] b, int start, int end) {
+        final int[] out = new int[Math.min(a.length, end - start)];
+        int i = 0;
+        int j = start;
+        int n = 0;
+        while (i < a.length && j < end) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    private static long gramAt(String s, int index) {
+        return ((long) s.charAt(index) << 32) | ((long) s.charAt(index + 1) << 16) | s.charAt(index + 2);
+    }
+}
@@ -0,0 +1,177 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+
+import androidx.annotation.WorkerThread;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Local SQLite store of the meal history. Every query touches the disk, so none of
+ * these methods may be called on the main thread.
+ * A generated history of a given size lives in a database of its own, seeded once when it
+ * is created, so switching sizes between launches never reads the rows of another size.
+ */
+public class MealStore extends SQLiteOpenHelper {
+
+    private static final String DATABASE_NAME = "meals.db";
+    private static final int DATABASE_VERSION = 1;
+
+    private static final String TABLE_MEALS = "meals";
+    private static final String COLUMN_ID = "_id";
+    private static final String COLUMN_TITLE = "title";
+
+    public MealStore(Context context) {
+        this(context, 0);
+    }
+
+    /**
+     * @param generatedItemCount size of the generated history {@link #getSeedMeals()} returns,
+     *                           0 for the real one.
+     */
+    public MealStore(Context context, int generatedItemCount) {
+        super(context.getApplicationContext(), getDatabaseName(generatedItemCount), null, DATABASE_VERSION);
+    }
+
+    private static String getDatabaseName(int generatedItemCount) {
+        return generatedItemCount > 0
+                ? "meals_generated_" + generatedItemCount + ".db"
+                : DATABASE_NAME;
+    }
+
+    /**
+     * @return the meals inserted when the database is first created. Called on the
+     * background thread that first opens the store.
+     */
+    @WorkerThread
+    protected List<String> getSeedMeals() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_MEALS + " ("
+                + COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + COLUMN_TITLE + " TEXT NOT NULL)");
+
+        // onCreate already runs inside a transaction
+        insertMeals(db, getSeedMeals());
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_MEALS);
+        onCreate(db);
+    }
+
+    /**
+     * Replaces every meal of the store with the given ones, in one transaction. Ids are never
+     * reused, the new meals get new ids.
+     */
+    @WorkerThread
+    public void reseed(List<String> meals) {
+        final SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.execSQL("DELETE FROM " + TABLE_MEALS);
+            insertMeals(db, meals);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    @WorkerThread
+    public int getCount() {
+        return (int) DatabaseUtils.queryNumEntries(getReadableDatabase(), TABLE_MEALS);
+    }
+
+    /**
+     * Reads up to {@code limit} meals, in insertion order, starting at {@code offset}.
+     * SQLite steps over the skipped rows one by one, prefer {@link #loadPageAfter} and
+     * {@link #loadPageBefore} when a neighbouring page is known.
+     *
+     * @return the number of meals written into {@code ids} and {@code titles}.
+     */
+    @WorkerThread
+    public int loadPage(int offset, int limit, long[] ids, String[] titles) {
+        Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT " + COLUMN_ID + ", " + COLUMN_TITLE + " FROM " + TABLE_MEALS
+                        + " ORDER BY " + COLUMN_ID + " LIMIT ? OFFSET ?",
+                new String[]{String.valueOf(limit), String.valueOf(offset)});
+        return readPage(cursor, limit, ids, titles);
+    }
+
+    /**
+     * Reads up to {@code limit} meals, in insertion order, following the meal of id
+     * {@code afterId}. Seeks the id index instead of counting rows, whatever the position.
+     *
+     * @return the number of meals written into {@code ids} and {@code titles}.
+     */
+    @WorkerThread
+    public int loadPageAfter(long afterId, int limit, long[] ids, String[] titles) {
+        Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT " + COLUMN_ID + ", " + COLUMN_TITLE + " FROM " + TABLE_MEALS
+                        + " WHERE " + COLUMN_ID + " > ? ORDER BY " + COLUMN_ID + " LIMIT ?",
+                new String[]{String.valueOf(afterId), String.valueOf(limit)});
+        return readPage(cursor, limit, ids, titles);
+    }
+
+    /**
+     * Reads up to {@code limit} meals preceding the meal of id {@code beforeId}, written in
+     * insertion order like {@link #loadPageAfter}.
+     *
+     * @return the number of meals written into {@code ids} and {@code titles}.
+     */
+    @WorkerThread
+    public int loadPageBefore(long beforeId, int limit, long[] ids, String[] titles) {
+        Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT " + COLUMN_ID + ", " + COLUMN_TITLE + " FROM " + TABLE_MEALS
+                        + " WHERE " + COLUMN_ID + " < ? ORDER BY " + COLUMN_ID + " DESC LIMIT ?",
+                new String[]{String.valueOf(beforeId), String.valueOf(limit)});
+        final int loaded = readPage(cursor, limit, ids, titles);
+
+        for (int i = 0, j = loaded - 1; i < j; i++, j--) {
+            final long id = ids[i];
+            ids[i] = ids[j];
+            ids[j] = id;
+            final String title = titles[i];
+            titles[i] = titles[j];
+            titles[j] = title;
+        }
+        return loaded;
+    }
+
+    private static int readPage(Cursor cursor, int limit, long[] ids, String[] titles) {
+        int loaded = 0;
+        try {
+            while (loaded < limit && cursor.moveToNext()) {
+                ids[loaded] = cursor.getLong(0);
+                titles[loaded] = cursor.getString(1);
+                loaded++;
+            }
+        } finally {
+            cursor.close();
+        }
+        return loaded;
+    }
+
+    private static void insertMeals(SQLiteDatabase db, List<String> meals) {
+        SQLiteStatement insert = db.compileStatement(
+                "INSERT INTO " + TABLE_MEALS + " (" + COLUMN_TITLE + ") VALUES (?)");
+        try {
+            for (int i = 0; i < meals.size(); i++) {
+                insert.bindString(1, meals.get(i));
+                insert.executeInsert();
+            }
+        } finally {
+            insert.close();
+        }
+    }
+}
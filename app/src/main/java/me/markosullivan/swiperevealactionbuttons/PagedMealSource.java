@@ -0,0 +1,395 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.MainThread;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Windowed view of the {@link MealStore}: meals are read in fixed-size pages on a
+ * background thread and at most {@code maxPages} pages are kept in memory, the least
+ * recently used one is evicted to make room for the next. Reading a row also prefetches
+ * the next page in the direction the list is scrolling.
+ * A page next to one loaded before is read from the id bounding it, so scrolling deep into
+ * a long history costs the same per page as its start. Only a jump lands on a page read by
+ * offset.
+ * Rows whose page is not loaded yet are reported as placeholders, with a null title and
+ * an id of their own, see {@link #isPlaceholderId(long)}. The {@link Callback} is told when
+ * they become available. After the meals of the store
+ * change, {@link #refresh()} reloads them.
+ * Apart from the constructor, all methods must be called on the main thread.
+ */
+public class PagedMealSource {
+
+    public static final long NO_ID = -1;
+
+    /**
+     * Two pages around the visible one plus the one being prefetched.
+     */
+    private static final int MIN_PAGES = 3;
+
+    public interface Callback {
+        /**
+         * The number of meals is known, until then the source is empty.
+         */
+        void onCountLoaded(int count);
+
+        /**
+         * Rows that were placeholders now have their data.
+         */
+        void onRangeLoaded(int start, int count);
+    }
+
+    /**
+     * Told once the meals of the store changed, see {@link #refresh()} and
+     * {@link #replaceMeals(List)}.
+     */
+    public interface OnStoreChangedListener {
+        void onStoreChanged();
+    }
+
+    private static final class Page {
+        int index = -1;
+        boolean loading = false;
+        long lastUsed = 0;
+        int size = 0;
+        final long[] ids;
+        final String[] titles;
+
+        Page(int pageSize) {
+            ids = new long[pageSize];
+            titles = new String[pageSize];
+        }
+    }
+
+    private final MealStore store;
+    private final int pageSize;
+    private final Page[] pages;
+
+    /**
+     * Per page index, the id of the last meal of the page before and of the first meal of the
+     * page after, NO_ID until one of those pages is loaded.
+     */
+    private long[] lastIdBefore = new long[0];
+    private long[] firstIdAfter = new long[0];
+
+    private final ExecutorService executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private Callback callback;
+    private OnStoreChangedListener storeChangedListener;
+
+    private int count = 0;
+    private int lastPosition = -1;
+    private boolean scrollingUp = false;
+    private long useCounter = 0;
+    private boolean closed = false;
+
+    public PagedMealSource(MealStore store, int pageSize, int maxPages) {
+        this.store = store;
+        this.pageSize = pageSize;
+
+        // the page arrays are allocated once and refilled, loading a page allocates no arrays
+        pages = new Page[Math.max(maxPages, MIN_PAGES)];
+        for (int i = 0; i < pages.length; i++) {
+            pages[i] = new Page(pageSize);
+        }
+
+        executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "PagedMealSource");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    @MainThread
+    public void setCallback(Callback callback) {
+        this.callback = callback;
+    }
+
+    @MainThread
+    public void setOnStoreChangedListener(OnStoreChangedListener listener) {
+        this.storeChangedListener = listener;
+    }
+
+    /**
+     * Opens the store and counts the meals off the main thread.
+     */
+    @MainThread
+    public void load() {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final int loadedCount = store.getCount();
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (closed) {
+                            return;
+                        }
+
+                        count = loadedCount;
+                        final int pageCount = (loadedCount + pageSize - 1) / pageSize;
+                        if (lastIdBefore.length != pageCount) {
+                            lastIdBefore = newPageKeys(pageCount);
+                            firstIdAfter = newPageKeys(pageCount);
+                        }
+                        if (callback != null) {
+                            callback.onCountLoaded(loadedCount);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    @MainThread
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return the title at the position, or null while its page is loading.
+     */
+    @MainThread
+    public String getTitle(int position) {
+        final Page page = pageFor(position);
+        return page == null ? null : page.titles[position - page.index * pageSize];
+    }
+
+    /**
+     * Like {@link #getTitle(int)} without counting as a read: no page is loaded or
+     * prefetched and the scroll direction is left alone.
+     *
+     * @return the title at the position, or null if its page is not in memory.
+     */
+    @MainThread
+    public String peekTitle(int position) {
+        final int pageIndex = position / pageSize;
+        final Page page = findPage(pageIndex);
+        if (page == null || page.loading || position - pageIndex * pageSize >= page.size) {
+            return null;
+        }
+        return page.titles[position - pageIndex * pageSize];
+    }
+
+    /**
+     * @return the store id of the meal at the position, or while its page is loading a
+     * placeholder id, the same for the position until the page loads and unique to it.
+     */
+    @MainThread
+    public long getId(int position) {
+        final Page page = pageFor(position);
+        return page == null ? NO_ID - 1 - position : page.ids[position - page.index * pageSize];
+    }
+
+    /**
+     * @return true for the ids {@link #getId(int)} reports for rows still loading, store ids
+     * are positive.
+     */
+    public static boolean isPlaceholderId(long id) {
+        return id < NO_ID;
+    }
+
+    /**
+     * Drops the pages in memory at once and counts the meals again, for after the store
+     * changed. Rows bound from now on are placeholders until their page loads again, the
+     * new count is reported through {@link Callback#onCountLoaded(int)}.
+     */
+    @MainThread
+    public void refresh() {
+        reload();
+        if (storeChangedListener != null) {
+            storeChangedListener.onStoreChanged();
+        }
+    }
+
+    /**
+     * Replaces the meals of the store off the main thread and reloads them like
+     * {@link #refresh()}, the {@link OnStoreChangedListener} is told once the store holds
+     * the new meals. The list must not be modified afterwards.
+     */
+    @MainThread
+    public void replaceMeals(final List<String> meals) {
+        if (closed) {
+            return;
+        }
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                store.reseed(meals);
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!closed && storeChangedListener != null) {
+                            storeChangedListener.onStoreChanged();
+                        }
+                    }
+                });
+            }
+        });
+        // the count is read after the reseed on the same thread
+        reload();
+    }
+
+    private void reload() {
+        // pages still loading keep their slot until their result comes in and is dropped
+        for (Page page : pages) {
+            page.index = -1;
+            page.size = 0;
+        }
+        Arrays.fill(lastIdBefore, NO_ID);
+        Arrays.fill(firstIdAfter, NO_ID);
+        lastPosition = -1;
+        scrollingUp = false;
+        load();
+    }
+
+    /**
+     * Stops loading and closes the store, pending results are dropped.
+     */
+    @MainThread
+    public void close() {
+        closed = true;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                store.close();
+            }
+        });
+        executor.shutdown();
+    }
+
+    private Page pageFor(int position) {
+        if (position != lastPosition) {
+            if (lastPosition >= 0) {
+                scrollingUp = position < lastPosition;
+            }
+            lastPosition = position;
+        }
+
+        final int pageIndex = position / pageSize;
+
+        Page page = findPage(pageIndex);
+        if (page == null) {
+            requestPage(pageIndex);
+        } else {
+            page.lastUsed = ++useCounter;
+        }
+
+        // prefetch after touching the current page so it is never the one evicted
+        final int aheadIndex = scrollingUp ? pageIndex - 1 : pageIndex + 1;
+        if (aheadIndex >= 0 && aheadIndex * pageSize < count && findPage(aheadIndex) == null) {
+            requestPage(aheadIndex);
+        }
+
+        return (page == null || page.loading || position - page.index * pageSize >= page.size)
+                ? null
+                : page;
+    }
+
+    private Page findPage(int pageIndex) {
+        for (Page page : pages) {
+            if (page.index == pageIndex) {
+                return page;
+            }
+        }
+        return null;
+    }
+
+    private void requestPage(final int pageIndex) {
+        if (closed) {
+            return;
+        }
+
+        // a free slot, otherwise the least recently used page that is not being loaded
+        Page target = null;
+        for (Page page : pages) {
+            if (page.index < 0 && !page.loading) {
+                target = page;
+                break;
+            }
+            if (!page.loading && (target == null || page.lastUsed < target.lastUsed)) {
+                target = page;
+            }
+        }
+
+        if (target == null) {
+            // every slot is loading already, the row will be requested again when rebound
+            return;
+        }
+
+        target.index = pageIndex;
+        target.loading = true;
+        target.size = 0;
+        target.lastUsed = ++useCounter;
+
+        final Page page = target;
+        final int offset = pageIndex * pageSize;
+        final long afterId = pageIndex < lastIdBefore.length ? lastIdBefore[pageIndex] : NO_ID;
+        final long beforeId = pageIndex < firstIdAfter.length ? firstIdAfter[pageIndex] : NO_ID;
+
+        // the slot is not read on the main thread while loading, so it is filled in place
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final int loaded;
+                if (afterId != NO_ID) {
+                    loaded = store.loadPageAfter(afterId, pageSize, page.ids, page.titles);
+                } else if (beforeId != NO_ID) {
+                    loaded = store.loadPageBefore(beforeId, pageSize, page.ids, page.titles);
+                } else {
+                    loaded = store.loadPage(offset, pageSize, page.ids, page.titles);
+                }
+
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (closed) {
+                            return;
+                        }
+
+                        page.loading = false;
+                        if (page.index != pageIndex) {
+                            // dropped by a refresh while loading
+                            return;
+                        }
+
+                        page.size = loaded;
+                        if (loaded > 0) {
+                            rememberPageKeys(pageIndex, page.ids[0], page.ids[loaded - 1]);
+                        }
+                        if (callback != null && loaded > 0) {
+                            callback.onRangeLoaded(offset, loaded);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void rememberPageKeys(int pageIndex, long firstId, long lastId) {
+        if (pageIndex + 1 < lastIdBefore.length) {
+            lastIdBefore[pageIndex + 1] = lastId;
+        }
+        if (pageIndex > 0 && pageIndex - 1 < firstIdAfter.length) {
+            firstIdAfter[pageIndex - 1] = firstId;
+        }
+    }
+
+    private static long[] newPageKeys(int pageCount) {
+        final long[] keys = new long[pageCount];
+        Arrays.fill(keys, NO_ID);
+        return keys;
+    }
+}
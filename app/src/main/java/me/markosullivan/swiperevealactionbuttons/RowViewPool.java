@@ -0,0 +1,144 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.MainThread;
+import androidx.asynclayoutinflater.view.AsyncLayoutInflater;
+
+import java.util.ArrayDeque;
+
+/**
+ * Row views inflated ahead of time on a background thread, so that the first rows created
+ * by a fast fling do not inflate on the main thread. {@link #acquire(ViewGroup)} hands out
+ * a pre-inflated view when one is ready and inflates synchronously otherwise.
+ * All methods must be called on the main thread.
+ */
+public class RowViewPool {
+
+    private final int layoutRes;
+    private final int capacity;
+    private final ArrayDeque<View> views;
+
+    private AsyncLayoutInflater asyncInflater;
+    private int pending = 0;
+
+    /**
+     * Rows still inflating that were asked for before the last clear, the inflater finishes
+     * them in order so they are the next ones to come back.
+     */
+    private int dropped = 0;
+
+    private int hitCount = 0;
+    private int missCount = 0;
+
+    /**
+     * @param layoutRes layout of the rows.
+     * @param capacity  maximum number of pre-inflated views kept.
+     */
+    public RowViewPool(int layoutRes, int capacity) {
+        this.layoutRes = layoutRes;
+        this.capacity = capacity;
+        this.views = new ArrayDeque<>(capacity);
+    }
+
+    /**
+     * Inflates up to {@code count} rows on the inflater thread, without going past the
+     * capacity of the pool.
+     *
+     * @param parent the list the rows will be added to, used for their layout params.
+     */
+    @MainThread
+    public void preInflate(Context context, ViewGroup parent, int count) {
+        if (asyncInflater == null) {
+            asyncInflater = new AsyncLayoutInflater(context);
+        }
+
+        final int toInflate = Math.min(count, capacity - views.size() - (pending - dropped));
+        for (int i = 0; i < toInflate; i++) {
+            pending++;
+            asyncInflater.inflate(layoutRes, parent, onInflateFinishedListener);
+        }
+    }
+
+    /**
+     * @return a pre-inflated row if one is ready, otherwise a row inflated now.
+     */
+    @MainThread
+    public View acquire(ViewGroup parent) {
+        final View view = views.poll();
+        if (view != null) {
+            hitCount++;
+            return view;
+        }
+
+        missCount++;
+        return LayoutInflater.from(parent.getContext()).inflate(layoutRes, parent, false);
+    }
+
+    public int getLayoutRes() {
+        return layoutRes;
+    }
+
+    /**
+     * @return the number of pre-inflated rows ready to be acquired.
+     */
+    public int size() {
+        return views.size();
+    }
+
+    /**
+     * @return the number of rows still inflating, including those dropped by a clear.
+     */
+    public int getPendingCount() {
+        return pending;
+    }
+
+    /**
+     * @return the number of acquire calls served by a pre-inflated row.
+     */
+    public int getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of acquire calls that had to inflate on the main thread.
+     */
+    public int getMissCount() {
+        return missCount;
+    }
+
+    public void resetStats() {
+        hitCount = 0;
+        missCount = 0;
+    }
+
+    /**
+     * Drops the pre-inflated rows, rows still inflating are dropped when they finish.
+     */
+    @MainThread
+    public void clear() {
+        views.clear();
+        dropped = pending;
+    }
+
+    // called on the main thread once a row is inflated
+    private final AsyncLayoutInflater.OnInflateFinishedListener onInflateFinishedListener =
+            new AsyncLayoutInflater.OnInflateFinishedListener() {
+                @Override
+                public void onInflateFinished(View view, int resid, ViewGroup parent) {
+                    pending--;
+                    if (dropped > 0) {
+                        // asked for before a clear
+                        dropped--;
+                        return;
+                    }
+
+                    if (views.size() < capacity) {
+                        views.add(view);
+                    }
+                }
+            };
+}
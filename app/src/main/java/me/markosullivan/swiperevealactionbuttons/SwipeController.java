@@ -0,0 +1,293 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import android.content.Context;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewParent;
+
+import androidx.annotation.Nullable;
+import androidx.core.view.ViewCompat;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Swipe gesture handling shared by all the rows of a RecyclerView: attached once to the
+ * list, it detects the horizontal drags and moves the row under the finger, so the rows
+ * no longer intercept touch events, track velocity or create a ViewDragHelper each.
+ * Rows keep their own settle, spring and listeners, only the tracking of the finger moves
+ * here. The row under the finger still sees every event of the gesture for its gesture
+ * metrics, touch stats and axis lock, and a drag only starts once the row locked the
+ * gesture horizontally. Only one row is dragged at a time.
+ * All methods must be called on the main thread.
+ */
+public class SwipeController implements RecyclerView.OnItemTouchListener {
+
+    private static final int INVALID_POINTER = -1;
+
+    private final int maxFlingVelocity;
+
+    private RecyclerView recyclerView;
+    private VelocityTracker velocityTracker;
+
+    /**
+     * Row under the finger, null once the gesture turned out to be vertical.
+     */
+    private SwipeRevealLayout target;
+    private boolean dragging = false;
+    private int activePointerId = INVALID_POINTER;
+
+    /**
+     * X of the active pointer the current drag distance is measured from.
+     */
+    private float dragStartX;
+    private float dragDx;
+
+    /**
+     * Row whose event recorder gets the events of the gesture. It keeps getting them once
+     * the gesture turned out vertical, so that the recording holds whole gestures.
+     */
+    private SwipeRevealLayout recordingRow;
+
+    private final RecyclerView.OnChildAttachStateChangeListener childAttachListener
+            = new RecyclerView.OnChildAttachStateChangeListener() {
+        @Override
+        public void onChildViewAttachedToWindow(View view) {
+            if (view instanceof SwipeRevealLayout) {
+                ((SwipeRevealLayout) view).setSwipeController(SwipeController.this);
+            }
+        }
+
+        @Override
+        public void onChildViewDetachedFromWindow(View view) {
+            if (view == target) {
+                cancelGesture();
+            }
+            if (view == recordingRow) {
+                recordingRow = null;
+            }
+        }
+    };
+
+    public SwipeController(Context context) {
+        maxFlingVelocity = ViewConfiguration.get(context).getScaledMaximumFlingVelocity();
+    }
+
+    /**
+     * Takes over the swipe gestures of the rows of the list, rows added later included.
+     *
+     * @param recyclerView the list, or null to give the gestures back to the rows.
+     */
+    public void attachToRecyclerView(@Nullable RecyclerView recyclerView) {
+        if (this.recyclerView == recyclerView) {
+            return;
+        }
+
+        if (this.recyclerView != null) {
+            cancelGesture();
+            recordingRow = null;
+            this.recyclerView.removeOnItemTouchListener(this);
+            this.recyclerView.removeOnChildAttachStateChangeListener(childAttachListener);
+            setControllerOfChildren(this.recyclerView, null);
+        }
+
+        this.recyclerView = recyclerView;
+
+        if (recyclerView != null) {
+            recyclerView.addOnItemTouchListener(this);
+            recyclerView.addOnChildAttachStateChangeListener(childAttachListener);
+            setControllerOfChildren(recyclerView, this);
+        }
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(RecyclerView rv, MotionEvent e) {
+        final int action = e.getActionMasked();
+        if (action == MotionEvent.ACTION_DOWN) {
+            resetGesture();
+            activePointerId = e.getPointerId(0);
+            target = findRowUnder(rv, e.getX(), e.getY());
+            recordingRow = target != null && target.getEventRecorder() != null ? target : null;
+        }
+
+        // called for every event of the gesture, also once the list scrolls
+        recordEvent(e);
+
+        // the gesture may end on the row while the event is handled
+        final SwipeRevealLayout row = target;
+        if (row == null) {
+            return false;
+        }
+
+        final int allocationsBefore = row.beginControlledEvent(e);
+        interceptEvent(e);
+        row.endControlledEvent(e, dragging, allocationsBefore);
+        return dragging;
+    }
+
+    private void interceptEvent(MotionEvent e) {
+        if (velocityTracker == null) {
+            velocityTracker = VelocityTracker.obtain();
+        }
+        velocityTracker.addMovement(e);
+
+        switch (e.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                // catch a settling row where it is, like ViewDragHelper does
+                if (target.isSettling()) {
+                    startDrag(e.getX());
+                }
+                break;
+
+            case MotionEvent.ACTION_MOVE: {
+                final int index = e.findPointerIndex(activePointerId);
+                if (index < 0 || dragging) {
+                    break;
+                }
+
+                // the row locks the axis with the same slop as when it drags itself
+                final int axis = target.getLockedAxis();
+                if (axis == ViewCompat.SCROLL_AXIS_HORIZONTAL) {
+                    startDrag(e.getX(index));
+                } else if (axis == ViewCompat.SCROLL_AXIS_VERTICAL) {
+                    // a vertical gesture, the list scrolls
+                    resetGesture();
+                }
+                break;
+            }
+
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                resetGesture();
+                break;
+        }
+    }
+
+    @Override
+    public void onTouchEvent(RecyclerView rv, MotionEvent e) {
+        recordEvent(e);
+        if (!dragging) {
+            return;
+        }
+
+        final SwipeRevealLayout row = target;
+        final int allocationsBefore = row.beginControlledEvent(e);
+        dragEvent(e);
+        row.endControlledEvent(e, false, allocationsBefore);
+    }
+
+    private void dragEvent(MotionEvent e) {
+        velocityTracker.addMovement(e);
+
+        switch (e.getActionMasked()) {
+            case MotionEvent.ACTION_MOVE: {
+                final int index = e.findPointerIndex(activePointerId);
+                if (index >= 0) {
+                    dragDx = e.getX(index) - dragStartX;
+                    target.dragControlled(dragDx);
+                }
+                break;
+            }
+
+            case MotionEvent.ACTION_POINTER_UP: {
+                final int index = e.getActionIndex();
+                if (e.getPointerId(index) == activePointerId) {
+                    // hand the drag over to another pointer without a jump
+                    final int newIndex = index == 0 ? 1 : 0;
+                    activePointerId = e.getPointerId(newIndex);
+                    dragStartX = e.getX(newIndex) - dragDx;
+                }
+                break;
+            }
+
+            case MotionEvent.ACTION_UP:
+                velocityTracker.computeCurrentVelocity(1000, maxFlingVelocity);
+                target.releaseControlledDrag(velocityTracker.getXVelocity(activePointerId));
+                resetGesture();
+                break;
+
+            case MotionEvent.ACTION_CANCEL:
+                cancelGesture();
+                break;
+        }
+    }
+
+    @Override
+    public void onRequestDisallowInterceptTouchEvent(boolean disallowIntercept) {
+        if (disallowIntercept) {
+            cancelGesture();
+        }
+    }
+
+    private void startDrag(float x) {
+        if (!target.canStartControlledDrag()) {
+            resetGesture();
+            return;
+        }
+
+        dragging = true;
+        dragStartX = x;
+        dragDx = 0;
+        target.startControlledDrag();
+
+        final ViewParent parent = recyclerView != null ? recyclerView.getParent() : null;
+        if (parent != null) {
+            parent.requestDisallowInterceptTouchEvent(true);
+        }
+    }
+
+    private void recordEvent(MotionEvent e) {
+        if (recordingRow == null) {
+            return;
+        }
+
+        recordingRow.recordControlledEvent(e);
+        final int action = e.getActionMasked();
+        if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+            recordingRow = null;
+        }
+    }
+
+    /**
+     * Ends the gesture, settling the dragged row, if any, to the nearest state.
+     */
+    private void cancelGesture() {
+        if (dragging) {
+            target.releaseControlledDrag(0);
+        }
+        resetGesture();
+    }
+
+    private void resetGesture() {
+        if (target != null) {
+            target.endControlledGesture();
+        }
+        target = null;
+        dragging = false;
+        activePointerId = INVALID_POINTER;
+        if (velocityTracker != null) {
+            velocityTracker.recycle();
+            velocityTracker = null;
+        }
+    }
+
+    @Nullable
+    private static SwipeRevealLayout findRowUnder(RecyclerView rv, float x, float y) {
+        final View child = rv.findChildViewUnder(x, y);
+        if (!(child instanceof SwipeRevealLayout)) {
+            return null;
+        }
+
+        final SwipeRevealLayout row = (SwipeRevealLayout) child;
+        return row.canStartControlledDrag() ? row : null;
+    }
+
+    private static void setControllerOfChildren(RecyclerView rv, @Nullable SwipeController controller) {
+        for (int i = 0; i < rv.getChildCount(); i++) {
+            final View child = rv.getChildAt(i);
+            if (child instanceof SwipeRevealLayout) {
+                ((SwipeRevealLayout) child).setSwipeController(controller);
+            }
+        }
+    }
+}
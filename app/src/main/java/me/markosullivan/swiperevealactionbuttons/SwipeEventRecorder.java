@@ -0,0 +1,258 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import android.os.SystemClock;
+import android.view.InputDevice;
+import android.view.MotionEvent;
+import android.view.View;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Records the raw touch events processed by the {@link SwipeRevealLayout}s it is set on,
+ * or tracked on them by a {@link SwipeController}, into a compact binary stream, and
+ * replays such a stream into a row or into the list holding the rows. Real gestures
+ * captured on a device can so be fed again, event for event and with their original
+ * timestamps, to reproduce a behaviour or time it.
+ * <p>
+ * Each event takes 7 bytes plus 9 per pointer: the action, the milliseconds since the
+ * previous event, the pointer count, then the id and x, y of every pointer in the
+ * coordinates of the row. An ACTION_DOWN also stores the position of the row in its
+ * parent, 8 more bytes, so the gesture can be replayed into the parent.
+ * Recording must happen on the main thread.
+ */
+public final class SwipeEventRecorder {
+
+    private static final int MAGIC = 0x53574556; // "SWEV"
+    private static final int VERSION = 1;
+
+    /**
+     * Result of a replay, see {@link #replay(InputStream, View, boolean)}.
+     */
+    public static final class ReplayResult {
+        private final long[] mEventNanos;
+        private final int mEventCount;
+        private final int mFinalState;
+
+        ReplayResult(long[] eventNanos, int eventCount, int finalState) {
+            mEventNanos = eventNanos;
+            mEventCount = eventCount;
+            mFinalState = finalState;
+        }
+
+        public int getEventCount() {
+            return mEventCount;
+        }
+
+        /**
+         * @return the time the target took to dispatch the event at {@code index}.
+         */
+        public long getEventNanos(int index) {
+            if (index < 0 || index >= mEventCount) {
+                throw new IndexOutOfBoundsException("index " + index + ", count " + mEventCount);
+            }
+            return mEventNanos[index];
+        }
+
+        public long getTotalNanos() {
+            long total = 0;
+            for (int i = 0; i < mEventCount; i++) {
+                total += mEventNanos[i];
+            }
+            return total;
+        }
+
+        public long getMaxNanos() {
+            long max = 0;
+            for (int i = 0; i < mEventCount; i++) {
+                max = Math.max(max, mEventNanos[i]);
+            }
+            return max;
+        }
+
+        /**
+         * @return the STATE_* value of the target right after the last event, -1 if the
+         * target is not a SwipeRevealLayout. A settle started by the last event is still
+         * running at that point, it ends on the following frames.
+         */
+        public int getFinalState() {
+            return mFinalState;
+        }
+    }
+
+    private final ByteArrayOutputStream mBuffer = new ByteArrayOutputStream();
+    private final DataOutputStream mOut = new DataOutputStream(mBuffer);
+
+    private int mEventCount = 0;
+    private long mLastEventTime = -1;
+
+    public SwipeEventRecorder() {
+        writeHeader();
+    }
+
+    /**
+     * @return the number of events recorded since the last reset.
+     */
+    public int getEventCount() {
+        return mEventCount;
+    }
+
+    /**
+     * @return the size in bytes of the recording, header included.
+     */
+    public int size() {
+        return mBuffer.size();
+    }
+
+    /**
+     * Called by the layouts with the events they process.
+     */
+    void record(MotionEvent ev, View row) {
+        final long eventTime = ev.getEventTime();
+        final int pointerCount = ev.getPointerCount();
+
+        try {
+            mOut.writeShort(ev.getAction());
+            mOut.writeInt(mLastEventTime < 0 ? 0 : (int) (eventTime - mLastEventTime));
+            mOut.writeByte(pointerCount);
+            if (ev.getActionMasked() == MotionEvent.ACTION_DOWN) {
+                mOut.writeFloat(row.getLeft());
+                mOut.writeFloat(row.getTop());
+            }
+            for (int i = 0; i < pointerCount; i++) {
+                mOut.writeByte(ev.getPointerId(i));
+                mOut.writeFloat(ev.getX(i));
+                mOut.writeFloat(ev.getY(i));
+            }
+        } catch (IOException e) {
+            // ByteArrayOutputStream does not throw
+            throw new IllegalStateException(e);
+        }
+
+        mLastEventTime = eventTime;
+        mEventCount++;
+    }
+
+    /**
+     * Writes the recording so far, it can be replayed with {@link #replay}.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        mBuffer.writeTo(out);
+    }
+
+    /**
+     * Drops the recorded events.
+     */
+    public void reset() {
+        mBuffer.reset();
+        mEventCount = 0;
+        mLastEventTime = -1;
+        writeHeader();
+    }
+
+    /**
+     * Dispatches the recorded events to the target one after the other, on the calling
+     * thread and without waiting between them. The events keep their recorded spacing,
+     * shifted to start now, so velocities come out as recorded.
+     *
+     * @param target            a row, or the parent the rows were recorded in.
+     * @param parentCoordinates true if the target is the parent, the events are then moved
+     *                          by the position the row had when the gesture started.
+     */
+    public static ReplayResult replay(InputStream source, View target, boolean parentCoordinates)
+            throws IOException {
+        final DataInputStream in = new DataInputStream(source);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("not a swipe event recording");
+        }
+
+        final int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("unsupported swipe event recording version " + version);
+        }
+
+        MotionEvent.PointerProperties[] properties = new MotionEvent.PointerProperties[0];
+        MotionEvent.PointerCoords[] coords = new MotionEvent.PointerCoords[0];
+        long[] eventNanos = new long[64];
+        int eventCount = 0;
+
+        long eventTime = SystemClock.uptimeMillis();
+        long downTime = eventTime;
+        float offsetX = 0;
+        float offsetY = 0;
+
+        while (true) {
+            final int action;
+            try {
+                action = in.readUnsignedShort();
+            } catch (EOFException e) {
+                break;
+            }
+
+            eventTime += in.readInt();
+            final int pointerCount = in.readUnsignedByte();
+            if ((action & MotionEvent.ACTION_MASK) == MotionEvent.ACTION_DOWN) {
+                downTime = eventTime;
+                final float rowLeft = in.readFloat();
+                final float rowTop = in.readFloat();
+                offsetX = parentCoordinates ? rowLeft : 0;
+                offsetY = parentCoordinates ? rowTop : 0;
+            }
+
+            if (properties.length < pointerCount) {
+                properties = new MotionEvent.PointerProperties[pointerCount];
+                coords = new MotionEvent.PointerCoords[pointerCount];
+                for (int i = 0; i < pointerCount; i++) {
+                    properties[i] = new MotionEvent.PointerProperties();
+                    coords[i] = new MotionEvent.PointerCoords();
+                }
+            }
+
+            for (int i = 0; i < pointerCount; i++) {
+                properties[i].clear();
+                properties[i].id = in.readUnsignedByte();
+                properties[i].toolType = MotionEvent.TOOL_TYPE_FINGER;
+                coords[i].clear();
+                coords[i].x = in.readFloat() + offsetX;
+                coords[i].y = in.readFloat() + offsetY;
+                coords[i].pressure = 1f;
+                coords[i].size = 1f;
+            }
+
+            final MotionEvent event = MotionEvent.obtain(downTime, eventTime, action,
+                    pointerCount, properties, coords, 0, 0, 1f, 1f, 0, 0,
+                    InputDevice.SOURCE_TOUCHSCREEN, 0);
+
+            final long start = System.nanoTime();
+            target.dispatchTouchEvent(event);
+            final long elapsed = System.nanoTime() - start;
+            event.recycle();
+
+            if (eventCount == eventNanos.length) {
+                final long[] grown = new long[eventCount * 2];
+                System.arraycopy(eventNanos, 0, grown, 0, eventCount);
+                eventNanos = grown;
+            }
+            eventNanos[eventCount++] = elapsed;
+        }
+
+        final int finalState = target instanceof SwipeRevealLayout
+                ? ((SwipeRevealLayout) target).getState()
+                : -1;
+        return new ReplayResult(eventNanos, eventCount, finalState);
+    }
+
+    private void writeHeader() {
+        try {
+            mOut.writeInt(MAGIC);
+            mOut.writeByte(VERSION);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import android.view.Choreographer;
+import android.view.Display;
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.core.view.ViewCompat;
+import androidx.customview.widget.ViewDragHelper;
+
+/**
+ * Measures the swiped gestures of a {@link SwipeRevealLayout} into a
+ * {@link SwipeGestureRecorder}, nothing is tracked while no recorder is set.
+ * The times are System.nanoTime() values, MotionEvent times use the same clock.
+ */
+final class SwipeGestureMetrics {
+
+    private final View mView;
+    private SwipeGestureRecorder mRecorder;
+
+    /**
+     * Obtained on first use, the layout may be inflated on a thread without a looper.
+     */
+    private Choreographer mChoreographer;
+
+    private long mDownNanos = 0;
+    private long mCaptureNanos = 0;
+    private long mReleaseNanos = 0;
+    private int mFrames = 0;
+    private int mJankyFrames = 0;
+    private long mLastFrameNanos = 0;
+    private long mFrameIntervalNanos = 0;
+    private boolean mFramesPosted = false;
+
+    SwipeGestureMetrics(View view) {
+        mView = view;
+    }
+
+    void setRecorder(SwipeGestureRecorder recorder) {
+        mRecorder = recorder;
+        if (recorder == null) {
+            reset();
+        }
+    }
+
+    SwipeGestureRecorder getRecorder() {
+        return mRecorder;
+    }
+
+    /**
+     * Forgets the current gesture, e.g. when the layout is detached.
+     */
+    void reset() {
+        stopFrames();
+        mDownNanos = 0;
+    }
+
+    void onDown(MotionEvent down) {
+        if (mRecorder == null) {
+            return;
+        }
+
+        // a gesture still settling when caught by this one is not recorded
+        stopFrames();
+        mDownNanos = down.getEventTime() * 1000000L;
+        mCaptureNanos = 0;
+        mReleaseNanos = 0;
+    }
+
+    /**
+     * The main view counts as captured once the finger leaves the touch slop horizontally,
+     * the ViewDragHelper captures it on every ACTION_DOWN.
+     */
+    void onCapture(MotionEvent move) {
+        if (mRecorder == null || mDownNanos == 0 || mCaptureNanos != 0) {
+            return;
+        }
+
+        mCaptureNanos = move.getEventTime() * 1000000L;
+        startFrames();
+    }
+
+    /**
+     * @param endState where an idle layout came to rest, STATE_OPEN or STATE_CLOSE.
+     */
+    void onDragStateChanged(int dragState, int endState) {
+        if (mRecorder == null || mDownNanos == 0) {
+            // not tracked, or moved by open()/close() rather than by a touch
+            return;
+        }
+
+        final long now = System.nanoTime();
+        switch (dragState) {
+            case ViewDragHelper.STATE_SETTLING:
+                if (mCaptureNanos != 0 && mReleaseNanos == 0) {
+                    mReleaseNanos = now;
+                }
+                break;
+
+            case ViewDragHelper.STATE_IDLE:
+                // a gesture that never left the touch slop, e.g. a tap, is not recorded
+                if (mCaptureNanos != 0) {
+                    if (mReleaseNanos == 0) {
+                        // released exactly where it settles
+                        mReleaseNanos = now;
+                    }
+
+                    stopFrames();
+                    mRecorder.record(
+                            mDownNanos / 1000000L,
+                            mCaptureNanos - mDownNanos,
+                            now - mReleaseNanos,
+                            mFrames,
+                            mJankyFrames,
+                            endState);
+                }
+                mDownNanos = 0;
+                break;
+        }
+    }
+
+    private void startFrames() {
+        if (mChoreographer == null) {
+            mChoreographer = Choreographer.getInstance();
+        }
+
+        if (mFrameIntervalNanos == 0) {
+            final Display display = ViewCompat.getDisplay(mView);
+            final float refreshRate = display != null ? display.getRefreshRate() : 60f;
+            mFrameIntervalNanos = (long) (1000000000L / (refreshRate > 1f ? refreshRate : 60f));
+        }
+
+        mFrames = 0;
+        mJankyFrames = 0;
+        mLastFrameNanos = 0;
+        mFramesPosted = true;
+        mChoreographer.postFrameCallback(mFrameCallback);
+    }
+
+    private void stopFrames() {
+        if (mFramesPosted) {
+            mFramesPosted = false;
+            mChoreographer.removeFrameCallback(mFrameCallback);
+        }
+    }
+
+    /**
+     * Counts the frames of the gesture, a frame is janky when it comes more than half a
+     * frame interval late, i.e. at least one vsync was missed.
+     */
+    private final Choreographer.FrameCallback mFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (mLastFrameNanos != 0) {
+                mFrames++;
+                if (frameTimeNanos - mLastFrameNanos > mFrameIntervalNanos + mFrameIntervalNanos / 2) {
+                    mJankyFrames++;
+                }
+            }
+
+            mLastFrameNanos = frameTimeNanos;
+            mChoreographer.postFrameCallback(this);
+        }
+    };
+}
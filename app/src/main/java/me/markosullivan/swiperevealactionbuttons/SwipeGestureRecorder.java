@@ -0,0 +1,198 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed-size, lock-free ring buffer of the swipe gestures measured by the
+ * {@link SwipeRevealLayout}s it is set on. The layouts record on the main thread and a
+ * single other thread (or the main thread itself) drains the records, no lock is taken on
+ * either side. When the buffer is full new gestures are dropped and counted, records that
+ * were not drained yet are never overwritten.
+ */
+public final class SwipeGestureRecorder {
+
+    public static final String CSV_HEADER =
+            "uptime_ms,down_to_capture_ns,release_to_idle_ns,frames,janky_frames,end_state";
+
+    /**
+     * Receives the drained gestures, in the order they ended.
+     */
+    public interface Visitor {
+        /**
+         * @param uptimeMillis      SystemClock.uptimeMillis() of the ACTION_DOWN.
+         * @param downToCaptureNanos time from ACTION_DOWN to the drag capturing the main view.
+         * @param releaseToIdleNanos time from the release to the layout settling idle.
+         * @param frames            frames drawn from the capture to the settle.
+         * @param jankyFrames       frames among them that took longer than the frame budget.
+         * @param endState          SwipeRevealLayout.STATE_OPEN or STATE_CLOSE.
+         */
+        void visit(long uptimeMillis, long downToCaptureNanos, long releaseToIdleNanos,
+                   int frames, int jankyFrames, int endState);
+    }
+
+    private final int mMask;
+    private final long[] mUptimeMillis;
+    private final long[] mDownToCaptureNanos;
+    private final long[] mReleaseToIdleNanos;
+    private final int[] mFrames;
+    private final int[] mJankyFrames;
+    private final int[] mEndStates;
+
+    /**
+     * Number of records written, only advanced by the recording thread after the slot is filled.
+     */
+    private final AtomicLong mHead = new AtomicLong();
+
+    /**
+     * Number of records drained, only advanced by the draining thread after the slot is read.
+     */
+    private final AtomicLong mTail = new AtomicLong();
+
+    private final AtomicLong mDropped = new AtomicLong();
+
+    /**
+     * @param capacity number of gestures kept until drained, rounded up to a power of two.
+     */
+    public SwipeGestureRecorder(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+
+        final int size = Integer.highestOneBit(capacity) == capacity
+                ? capacity
+                : Integer.highestOneBit(capacity) << 1;
+        mMask = size - 1;
+        mUptimeMillis = new long[size];
+        mDownToCaptureNanos = new long[size];
+        mReleaseToIdleNanos = new long[size];
+        mFrames = new int[size];
+        mJankyFrames = new int[size];
+        mEndStates = new int[size];
+    }
+
+    public int getCapacity() {
+        return mMask + 1;
+    }
+
+    /**
+     * @return the number of gestures recorded and not drained yet.
+     */
+    public int size() {
+        return (int) (mHead.get() - mTail.get());
+    }
+
+    /**
+     * @return the number of gestures dropped because the buffer was full.
+     */
+    public long getDroppedCount() {
+        return mDropped.get();
+    }
+
+    /**
+     * Called by the layouts on the main thread. Allocates nothing.
+     *
+     * @return false if the buffer is full and the gesture was dropped.
+     */
+    boolean record(long uptimeMillis, long downToCaptureNanos, long releaseToIdleNanos,
+                   int frames, int jankyFrames, int endState) {
+        final long head = mHead.get();
+        if (head - mTail.get() > mMask) {
+            mDropped.incrementAndGet();
+            return false;
+        }
+
+        final int slot = (int) (head & mMask);
+        mUptimeMillis[slot] = uptimeMillis;
+        mDownToCaptureNanos[slot] = downToCaptureNanos;
+        mReleaseToIdleNanos[slot] = releaseToIdleNanos;
+        mFrames[slot] = frames;
+        mJankyFrames[slot] = jankyFrames;
+        mEndStates[slot] = endState;
+
+        // publishes the slot to the draining thread
+        mHead.set(head + 1);
+        return true;
+    }
+
+    /**
+     * Hands every recorded gesture to the visitor and removes it from the buffer.
+     * Must not be called from two threads at once.
+     *
+     * @return the number of gestures drained.
+     */
+    public int drain(Visitor visitor) {
+        final long head = mHead.get();
+        long tail = mTail.get();
+        final int drained = (int) (head - tail);
+
+        while (tail < head) {
+            final int slot = (int) (tail & mMask);
+            visitor.visit(mUptimeMillis[slot], mDownToCaptureNanos[slot], mReleaseToIdleNanos[slot],
+                    mFrames[slot], mJankyFrames[slot], mEndStates[slot]);
+
+            // frees the slot for the recording thread
+            mTail.set(++tail);
+        }
+        return drained;
+    }
+
+    /**
+     * Drains the gestures as CSV rows, see {@link #CSV_HEADER} for the columns.
+     *
+     * @param withHeader whether to write the header line first.
+     */
+    public int drainCsv(final Appendable out, boolean withHeader) throws IOException {
+        if (withHeader) {
+            out.append(CSV_HEADER).append('\n');
+        }
+
+        final IOException[] failure = new IOException[1];
+        final int drained = drain(new Visitor() {
+            @Override
+            public void visit(long uptimeMillis, long downToCaptureNanos, long releaseToIdleNanos,
+                              int frames, int jankyFrames, int endState) {
+                if (failure[0] != null) {
+                    return;
+                }
+
+                try {
+                    out.append(Long.toString(uptimeMillis)).append(',')
+                            .append(Long.toString(downToCaptureNanos)).append(',')
+                            .append(Long.toString(releaseToIdleNanos)).append(',')
+                            .append(Integer.toString(frames)).append(',')
+                            .append(Integer.toString(jankyFrames)).append(',')
+                            .append(endState == SwipeRevealLayout.STATE_OPEN ? "open" : "close")
+                            .append('\n');
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            }
+        });
+
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        return drained;
+    }
+
+    /**
+     * Drains the gestures to logcat, one line per gesture.
+     */
+    public int drainToLog(final String tag) {
+        return drain(new Visitor() {
+            @Override
+            public void visit(long uptimeMillis, long downToCaptureNanos, long releaseToIdleNanos,
+                              int frames, int jankyFrames, int endState) {
+                Log.i(tag, "swipe at " + uptimeMillis + "ms"
+                        + ": capture " + downToCaptureNanos / 1000 + "us"
+                        + ", settle " + releaseToIdleNanos / 1000 + "us"
+                        + ", frames " + frames
+                        + ", janky " + jankyFrames
+                        + ", " + (endState == SwipeRevealLayout.STATE_OPEN ? "open" : "close"));
+            }
+        });
+    }
+}
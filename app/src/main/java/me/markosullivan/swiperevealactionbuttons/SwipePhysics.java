@@ -0,0 +1,181 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+/**
+ * The decisions behind a swipe, free of any Android type so they can be run and measured
+ * on a plain JVM: where the main view may be dragged to, whether a release opens or closes
+ * the layout, and whether a touch sequence may still turn into a click.
+ * All positions are in pixels, in the coordinate space of the SwipeRevealLayout.
+ */
+public final class SwipePhysics {
+
+    /**
+     * Same values as {@link SwipeRevealLayout#DRAG_EDGE_LEFT} and
+     * {@link SwipeRevealLayout#DRAG_EDGE_RIGHT}.
+     */
+    public static final int EDGE_LEFT = 0x1;
+    public static final int EDGE_RIGHT = 0x1 << 1;
+
+    private int mDragEdge = EDGE_LEFT;
+
+    /**
+     * Left and right of the main view when the layout is closed.
+     */
+    private int mClosedLeft;
+    private int mClosedRight;
+
+    /**
+     * Width of the secondary view, i.e. how far the main view travels when opening.
+     */
+    private int mRevealWidth;
+
+    private float mMinFlingVelocity;
+    private float mTouchSlop;
+
+    private float mDragDist = 0;
+    private float mPrevX = -1;
+
+    public void setDragEdge(int dragEdge) {
+        mDragEdge = dragEdge;
+    }
+
+    public int getDragEdge() {
+        return mDragEdge;
+    }
+
+    public void setGeometry(int closedLeft, int closedRight, int revealWidth) {
+        mClosedLeft = closedLeft;
+        mClosedRight = closedRight;
+        mRevealWidth = revealWidth;
+    }
+
+    public int getClosedLeft() {
+        return mClosedLeft;
+    }
+
+    public int getRevealWidth() {
+        return mRevealWidth;
+    }
+
+    /**
+     * @param minFlingVelocity minimum release velocity (px per second) that counts as a fling.
+     */
+    public void setMinFlingVelocity(float minFlingVelocity) {
+        mMinFlingVelocity = minFlingVelocity;
+    }
+
+    public void setTouchSlop(float touchSlop) {
+        mTouchSlop = touchSlop;
+    }
+
+    /**
+     * @return the left of the main view, clamped between its closed and opened positions.
+     */
+    public int clampLeft(int left) {
+        switch (mDragEdge) {
+            case EDGE_RIGHT:
+                return Math.max(Math.min(left, mClosedLeft), mClosedLeft - mRevealWidth);
+
+            case EDGE_LEFT:
+                return Math.max(Math.min(left, mClosedLeft + mRevealWidth), mClosedLeft);
+
+            default:
+                return mClosedLeft;
+        }
+    }
+
+    /**
+     * A release faster than the fling velocity goes the way it was flung, otherwise the
+     * main view settles on the side of the halfway pivot it was released on.
+     *
+     * @param mainLeft left of the main view when it was released.
+     * @param xvel     horizontal release velocity in px per second.
+     * @return true if the layout should open, false if it should close.
+     */
+    public boolean shouldOpenOnRelease(int mainLeft, float xvel) {
+        final boolean velRightExceeded = xvel >= mMinFlingVelocity;
+        final boolean velLeftExceeded = xvel <= -mMinFlingVelocity;
+
+        final int pivotHorizontal = getHalfwayPivotHorizontal();
+
+        if (mDragEdge == EDGE_RIGHT) {
+            if (velRightExceeded) {
+                return false;
+            } else if (velLeftExceeded) {
+                return true;
+            }
+
+            final int mainRight = mainLeft + (mClosedRight - mClosedLeft);
+            return mainRight < pivotHorizontal;
+        } else {
+            if (velRightExceeded) {
+                return true;
+            } else if (velLeftExceeded) {
+                return false;
+            }
+
+            return mainLeft >= pivotHorizontal;
+        }
+    }
+
+    /**
+     * @return the distance of the main view to the nearest of its closed or opened positions.
+     */
+    public int getDistToClosestEdge(int mainLeft) {
+        switch (mDragEdge) {
+            case EDGE_LEFT:
+            case EDGE_RIGHT:
+                final int travelled = Math.abs(mainLeft - mClosedLeft);
+                return Math.min(travelled, mRevealWidth - travelled);
+
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * @return how far the main view is opened, from 0 when closed to 1 when fully opened.
+     */
+    public float getSlideOffset(int mainLeft) {
+        if (mRevealWidth == 0) {
+            return 0;
+        }
+        return Math.min(Math.abs(mainLeft - mClosedLeft), mRevealWidth) / (float) mRevealWidth;
+    }
+
+    public int getHalfwayPivotHorizontal() {
+        if (mDragEdge == EDGE_LEFT) {
+            return mClosedLeft + mRevealWidth / 2;
+        } else {
+            return mClosedRight - mRevealWidth / 2;
+        }
+    }
+
+    /**
+     * Accumulates the horizontal distance travelled since the last down event.
+     */
+    public void accumulateDragDist(boolean down, float x) {
+        if (down) {
+            mDragDist = 0;
+        } else {
+            mDragDist += Math.abs(x - mPrevX);
+        }
+
+        mPrevX = x;
+    }
+
+    public float getDragDist() {
+        return mDragDist;
+    }
+
+    /**
+     * @param inMainView whether the touch is within the main view.
+     * @return true if the current touch sequence may still end up as a click on the main view.
+     */
+    public boolean couldBecomeClick(boolean inMainView) {
+        return inMainView && !shouldInitiateADrag();
+    }
+
+    public boolean shouldInitiateADrag() {
+        return mDragDist >= mTouchSlop;
+    }
+}
@@ -1,30 +1,33 @@
 package me.markosullivan.swiperevealactionbuttons;
 
 import android.content.Context;
-import android.content.res.Resources;
 import android.content.res.TypedArray;
 import android.graphics.Rect;
-import android.os.Bundle;
+import android.os.Debug;
+import android.os.Parcel;
 import android.os.Parcelable;
 import android.util.AttributeSet;
 import android.util.DisplayMetrics;
-import android.view.GestureDetector;
+import android.view.Choreographer;
 import android.view.MotionEvent;
+import android.view.VelocityTracker;
 import android.view.View;
+import android.view.ViewConfiguration;
 import android.view.ViewGroup;
+import android.view.ViewStub;
 
 import androidx.annotation.Nullable;
-import androidx.core.view.GestureDetectorCompat;
+import androidx.core.view.NestedScrollingChild;
+import androidx.core.view.NestedScrollingChildHelper;
 import androidx.core.view.ViewCompat;
+import androidx.customview.view.AbsSavedState;
 import androidx.customview.widget.ViewDragHelper;
 
 /**
  * Created by Mark O'Sullivan on 25th February 2018.
  */
 
-public class SwipeRevealLayout extends ViewGroup {
-
-    private static final String SUPER_INSTANCE_STATE = "saved_instance_state_parcelable";
+public class SwipeRevealLayout extends ViewGroup implements NestedScrollingChild {
 
     private static final int DEFAULT_MIN_FLING_VELOCITY = 300; // dp per second
     private static final int DEFAULT_MIN_DIST_REQUEST_DISALLOW_PARENT = 1; // dp
@@ -42,6 +45,54 @@ public class SwipeRevealLayout extends ViewGroup {
      */
     public static final int MODE_SAME_LEVEL = 1;
 
+    /**
+     * The children are moved by laying them out again at their new position.
+     */
+    public static final int RENDER_MODE_LAYOUT = 0;
+
+    /**
+     * The children stay laid out at their closed position and are moved through their
+     * translationX, which only updates their render node and needs no layout or redraw.
+     */
+    public static final int RENDER_MODE_TRANSLATION = 1;
+
+    /**
+     * Released and programmatically animated rows settle over a duration, which the
+     * ViewDragHelper caps at 600ms whatever the release velocity.
+     */
+    public static final int SETTLE_MODE_LINEAR = 0;
+
+    /**
+     * Released and programmatically animated rows settle with a {@link SwipeSpring} started at
+     * the release velocity, a touch during the settle catches the row where it is.
+     */
+    public static final int SETTLE_MODE_SPRING = 1;
+
+    /**
+     * The layout is closed and idle.
+     */
+    public static final int STATE_CLOSE = 0;
+
+    /**
+     * The layout is settling towards the closed position.
+     */
+    public static final int STATE_CLOSING = 1;
+
+    /**
+     * The layout is opened and idle.
+     */
+    public static final int STATE_OPEN = 2;
+
+    /**
+     * The layout is settling towards the opened position.
+     */
+    public static final int STATE_OPENING = 3;
+
+    /**
+     * The main view is being dragged by the user.
+     */
+    public static final int STATE_DRAGGING = 4;
+
     /**
      * Main view is the view which is shown when the layout is closed.
      */
@@ -49,6 +100,7 @@ public class SwipeRevealLayout extends ViewGroup {
 
     /**
      * Secondary view is the view which is shown when the layout is opened.
+     * It may be a ViewStub, which is inflated the first time the layout is dragged or opened.
      */
     private View mSecondaryView;
 
@@ -72,26 +124,208 @@ public class SwipeRevealLayout extends ViewGroup {
      */
     private Rect mRectSecOpen = new Rect();
 
-    /**
-     * The minimum distance (px) to the closest drag edge that the SwipeRevealLayout
-     * will disallow the parent to intercept touch event.
-     */
-    private int mMinDistRequestDisallowParent = 0;
-
     private boolean mIsOpenBeforeInit = false;
+    private boolean mRectsInitialized = false;
     private volatile boolean mIsScrolling = false;
     private volatile boolean mLockDrag = false;
 
+    /**
+     * If true, the moving children are rendered through a hardware layer while the drag
+     * helper is not idle, so each frame only recomposites them instead of redrawing.
+     */
+    private boolean mHardwareLayerOnDrag = false;
+    private boolean mDragLayerActive = false;
+
     private int mMinFlingVelocity = DEFAULT_MIN_FLING_VELOCITY;
     private int mMode = MODE_NORMAL;
+    private int mRenderMode = RENDER_MODE_LAYOUT;
+    private int mSettleMode = SETTLE_MODE_LINEAR;
 
     private int mDragEdge = DRAG_EDGE_LEFT;
+    private int mState = STATE_CLOSE;
+
+    private final SwipePhysics mPhysics = new SwipePhysics();
+
+    /**
+     * Settles the main view whenever the ViewDragHelper does not, in both render modes.
+     */
+    private final SwipeSettler mSettler = new SwipeSettler(getContext(), mPhysics);
+
+    /**
+     * Density dependent thresholds, resolved once in init().
+     */
+    private float mMinFlingVelocityPx;
+
+    /**
+     * The minimum distance (px) to the closest drag edge that the SwipeRevealLayout
+     * will disallow the parent to intercept touch event.
+     */
+    private int mMinDistRequestDisallowParentPx;
+    private int mTouchSlopSquare;
+
+    /**
+     * Scroll detection that used to be done by a GestureDetector.
+     */
+    private float mDownX;
+    private float mDownY;
+    private boolean mHasDisallowed = false;
+
+    /**
+     * ViewCompat.SCROLL_AXIS_* value the gesture was locked to when it left the touch slop.
+     */
+    private int mLockedAxis = ViewCompat.SCROLL_AXIS_NONE;
+
+    /**
+     * Created on first use: View's constructor calls setNestedScrollingEnabled for the
+     * android:nestedScrollingEnabled attribute, before the field initializers run.
+     */
+    private NestedScrollingChildHelper mNestedScrollingHelper;
+
+    /**
+     * Nested scrolling of a horizontal gesture: where the last delta was measured from, the
+     * delta of the current move, and the distance the parents consumed in total.
+     */
+    private float mNestedLastX;
+    private int mNestedLastLeft;
+    private int mNestedDx = 0;
+    private int mNestedOffsetX = 0;
+    private final int[] mNestedConsumed = new int[2];
+
+    /**
+     * Identifies the last event that went through the pipeline, so that an event seen by
+     * onInterceptTouchEvent is not processed again when it falls through to onTouchEvent.
+     */
+    private long mLastEventTime = -1;
+    private int mLastEventAction = -1;
+    private float mLastEventX;
+
+    /**
+     * Number of onMeasure/onLayout passes, checked against the layout budget of the tests.
+     */
+    private int mMeasureCount = 0;
+    private int mLayoutCount = 0;
+
+    /**
+     * Rows with touch stats enabled. Allocation counting is process wide: it starts with
+     * the first of them and stops with the last, main thread only.
+     */
+    private static int sAllocCountingRows = 0;
+
+    private boolean mTouchStatsEnabled = false;
+    private long mTouchEventCount = 0;
+    private long mTouchAllocationCount = 0;
+    private long mInterceptCount = 0;
+    private long mCancelCount = 0;
+
+    /**
+     * ViewDragHelper.STATE_* value whenever the main view is not driven by the helper.
+     */
+    private int mOwnDragState = ViewDragHelper.STATE_IDLE;
 
-    private float mDragDist = 0;
-    private float mPrevX = -1;
+    /**
+     * Current translationX of the main view in RENDER_MODE_TRANSLATION.
+     */
+    private int mMainOffset = 0;
+    private int mDragStartOffset = 0;
+    private float mTranslationDownX;
+    private float mTranslationDownY;
+    private float mMaxFlingVelocity;
+    private VelocityTracker mVelocityTracker;
 
+    /**
+     * Created on the first touch that needs it, rows driven by a SwipeController or
+     * rendered through translation never create one.
+     */
     private ViewDragHelper mDragHelper;
-    private GestureDetectorCompat mGestureDetector;
+    private int mTouchSlop;
+
+    private SwipeController mSwipeController;
+    private int mControlledStartLeft;
+
+    private DragStateChangeListener mDragStateChangeListener;
+
+    private SwipeListener mSwipeListener;
+
+    /**
+     * Obtained on first use, the layout may be inflated on a thread without a looper.
+     */
+    private Choreographer mChoreographer;
+    private boolean mSlidePending = false;
+    private float mLastSlideOffset = 0;
+
+    private final SwipeGestureMetrics mGestureMetrics = new SwipeGestureMetrics(this);
+    private SwipeEventRecorder mEventRecorder;
+
+    /**
+     * The measure specs of the last onMeasure pass.
+     */
+    private int mWidthMeasureSpec;
+    private int mHeightMeasureSpec;
+
+    /**
+     * Notified whenever the layout moves between the STATE_* values.
+     */
+    public interface DragStateChangeListener {
+        void onDragStateChanged(int state);
+    }
+
+    /**
+     * Observes the swipe of the layout. onSlide is called at most once per frame with the
+     * position of the main view at that frame, however often it moved in between.
+     */
+    public interface SwipeListener {
+        void onClosed(SwipeRevealLayout view);
+
+        void onOpened(SwipeRevealLayout view);
+
+        /**
+         * @param slideOffset 0 when closed, 1 when fully opened.
+         */
+        void onSlide(SwipeRevealLayout view, float slideOffset);
+    }
+
+    /**
+     * Whether the layout was opened and from which edge, a few bytes on top of the state
+     * of the super class. Only restored when the drag edge still matches.
+     */
+    public static class SavedState extends AbsSavedState {
+        boolean opened;
+        int dragEdge;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        SavedState(Parcel source, ClassLoader loader) {
+            super(source, loader);
+            opened = source.readByte() != 0;
+            dragEdge = source.readInt();
+        }
+
+        @Override
+        public void writeToParcel(Parcel dest, int flags) {
+            super.writeToParcel(dest, flags);
+            dest.writeByte((byte) (opened ? 1 : 0));
+            dest.writeInt(dragEdge);
+        }
+
+        public static final Creator<SavedState> CREATOR = new ClassLoaderCreator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel source, ClassLoader loader) {
+                return new SavedState(source, loader);
+            }
+
+            @Override
+            public SavedState createFromParcel(Parcel source) {
+                return new SavedState(source, null);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
 
     public SwipeRevealLayout(Context context) {
         super(context);
@@ -105,50 +339,258 @@ public class SwipeRevealLayout extends ViewGroup {
 
     public SwipeRevealLayout(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
+        init(context, attrs);
     }
 
     @Nullable
     @Override
     protected Parcelable onSaveInstanceState() {
-        Bundle bundle = new Bundle();
-        bundle.putParcelable(SUPER_INSTANCE_STATE, super.onSaveInstanceState());
-        return super.onSaveInstanceState();
+        final SavedState savedState = new SavedState(super.onSaveInstanceState());
+        // a drag in progress is saved where its release would settle
+        savedState.opened = mState == STATE_DRAGGING
+                ? mPhysics.shouldOpenOnRelease(getMainLeft(), 0)
+                : mIsOpenBeforeInit;
+        savedState.dragEdge = mDragEdge;
+        return savedState;
     }
 
     @Override
     protected void onRestoreInstanceState(Parcelable state) {
-        Bundle bundle = (Bundle) state;
-        state = bundle.getParcelable(SUPER_INSTANCE_STATE);
-        super.onRestoreInstanceState(state);
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+
+        final SavedState savedState = (SavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+
+        if (savedState.dragEdge != mDragEdge) {
+            return;
+        }
+
+        if (savedState.opened) {
+            open(false);
+        } else {
+            close(false);
+        }
     }
 
     @Override
     public boolean onTouchEvent(MotionEvent event) {
-        mGestureDetector.onTouchEvent(event);
-        mDragHelper.processTouchEvent(event);
+        if (BuildConfig.SWIPE_TRACING) {
+            SwipeTrace.beginSection(SwipeTrace.ROW_TOUCH);
+            try {
+                return handleTouchEvent(event);
+            } finally {
+                SwipeTrace.endSection();
+            }
+        }
+        return handleTouchEvent(event);
+    }
+
+    private boolean handleTouchEvent(MotionEvent event) {
+        if (mSwipeController != null) {
+            // dragged by the controller, the row only sees the taps
+            return super.onTouchEvent(event);
+        }
+
+        if (isSameAsLastEvent(event)) {
+            // already handled by onInterceptTouchEvent, nobody below consumed it
+            return true;
+        }
+
+        if (mEventRecorder != null) {
+            mEventRecorder.record(event, this);
+        }
+
+        final int allocationsBefore = mTouchStatsEnabled ? getThreadAllocationCount() : 0;
+
+        trackGesture(event);
+        if (mLockedAxis != ViewCompat.SCROLL_AXIS_VERTICAL) {
+            processNestedDragEvent(event);
+        }
+
+        if (mTouchStatsEnabled) {
+            recordTouchStats(event, false, allocationsBefore);
+        }
         return true;
     }
 
     @Override
     public boolean onInterceptTouchEvent(MotionEvent ev) {
-        if (isDragLocked()) {
+        if (BuildConfig.SWIPE_TRACING) {
+            SwipeTrace.beginSection(SwipeTrace.ROW_INTERCEPT_TOUCH);
+            try {
+                return handleInterceptTouchEvent(ev);
+            } finally {
+                SwipeTrace.endSection();
+            }
+        }
+        return handleInterceptTouchEvent(ev);
+    }
+
+    private boolean handleInterceptTouchEvent(MotionEvent ev) {
+        if (isDragLocked() || mSwipeController != null) {
             return super.onInterceptTouchEvent(ev);
         }
 
-        mDragHelper.processTouchEvent(ev);
-        mGestureDetector.onTouchEvent(ev);
-        accumulateDragDist(ev);
+        final int allocationsBefore = mTouchStatsEnabled ? getThreadAllocationCount() : 0;
+
+        rememberEvent(ev);
+        if (mEventRecorder != null) {
+            mEventRecorder.record(ev, this);
+        }
+        trackGesture(ev);
+        mPhysics.accumulateDragDist(ev.getActionMasked() == MotionEvent.ACTION_DOWN, ev.getX());
+
+        boolean intercept = false;
+        if (mLockedAxis != ViewCompat.SCROLL_AXIS_VERTICAL) {
+            processNestedDragEvent(ev);
+
+            boolean couldBecomeClick = mPhysics.couldBecomeClick(isInMainView(ev));
+            boolean settling = getViewDragState() == ViewDragHelper.STATE_SETTLING;
+            boolean idleAfterScrolled
+                    = getViewDragState() == ViewDragHelper.STATE_IDLE && mIsScrolling;
+
+            // true => intercept, cannot trigger onClick event
+            intercept = !couldBecomeClick && (settling || idleAfterScrolled);
+        }
+
+        if (mTouchStatsEnabled) {
+            recordTouchStats(ev, intercept, allocationsBefore);
+        }
+        return intercept;
+    }
+
+    /**
+     * Counts the touch events processed and the objects allocated for them. Debug only,
+     * allocation counting is process wide: disable the stats on every row that enabled them.
+     */
+    @SuppressWarnings("deprecation")
+    public void setTouchStatsEnabled(boolean enabled) {
+        if (enabled == mTouchStatsEnabled) {
+            return;
+        }
+
+        mTouchStatsEnabled = enabled;
+        if (enabled) {
+            if (sAllocCountingRows++ == 0) {
+                Debug.startAllocCounting();
+            }
+        } else if (--sAllocCountingRows == 0) {
+            Debug.stopAllocCounting();
+        }
+    }
+
+    /**
+     * @return the number of touch events processed since the stats were last reset.
+     */
+    public long getTouchEventCount() {
+        return mTouchEventCount;
+    }
+
+    /**
+     * @return the number of objects allocated while processing those touch events.
+     */
+    public long getTouchAllocationCount() {
+        return mTouchAllocationCount;
+    }
+
+    /**
+     * @return the number of events this layout intercepted from its children.
+     */
+    public long getInterceptCount() {
+        return mInterceptCount;
+    }
+
+    /**
+     * @return the number of gestures cancelled under this layout, typically because the
+     * parent took them over.
+     */
+    public long getCancelCount() {
+        return mCancelCount;
+    }
+
+    public void resetTouchStats() {
+        mTouchEventCount = 0;
+        mTouchAllocationCount = 0;
+        mInterceptCount = 0;
+        mCancelCount = 0;
+    }
+
+    @Override
+    public void setNestedScrollingEnabled(boolean enabled) {
+        getNestedScrollingHelper().setNestedScrollingEnabled(enabled);
+    }
+
+    @Override
+    public boolean isNestedScrollingEnabled() {
+        return getNestedScrollingHelper().isNestedScrollingEnabled();
+    }
+
+    @Override
+    public boolean startNestedScroll(int axes) {
+        return getNestedScrollingHelper().startNestedScroll(axes);
+    }
+
+    @Override
+    public void stopNestedScroll() {
+        getNestedScrollingHelper().stopNestedScroll();
+    }
+
+    @Override
+    public boolean hasNestedScrollingParent() {
+        return getNestedScrollingHelper().hasNestedScrollingParent();
+    }
+
+    @Override
+    public boolean dispatchNestedScroll(int dxConsumed, int dyConsumed, int dxUnconsumed,
+                                        int dyUnconsumed, @Nullable int[] offsetInWindow) {
+        return getNestedScrollingHelper().dispatchNestedScroll(
+                dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, offsetInWindow);
+    }
+
+    @Override
+    public boolean dispatchNestedPreScroll(int dx, int dy, @Nullable int[] consumed,
+                                           @Nullable int[] offsetInWindow) {
+        return getNestedScrollingHelper().dispatchNestedPreScroll(dx, dy, consumed, offsetInWindow);
+    }
+
+    @Override
+    public boolean dispatchNestedFling(float velocityX, float velocityY, boolean consumed) {
+        return getNestedScrollingHelper().dispatchNestedFling(velocityX, velocityY, consumed);
+    }
+
+    @Override
+    public boolean dispatchNestedPreFling(float velocityX, float velocityY) {
+        return getNestedScrollingHelper().dispatchNestedPreFling(velocityX, velocityY);
+    }
+
+    private NestedScrollingChildHelper getNestedScrollingHelper() {
+        if (mNestedScrollingHelper == null) {
+            mNestedScrollingHelper = new NestedScrollingChildHelper(this);
+            mNestedScrollingHelper.setNestedScrollingEnabled(true);
+        }
+        return mNestedScrollingHelper;
+    }
 
-        boolean couldBecomeClick = couldBecomeClick(ev);
-        boolean settling = mDragHelper.getViewDragState() == ViewDragHelper.STATE_SETTLING;
-        boolean idleAfterScrolled
-                = mDragHelper.getViewDragState() == ViewDragHelper.STATE_IDLE && mIsScrolling;
+    /**
+     * @return the number of onMeasure passes since the counts were last reset.
+     */
+    public int getMeasureCount() {
+        return mMeasureCount;
+    }
 
-        // must be placed as the last statement
-        mPrevX = ev.getX();
+    /**
+     * @return the number of onLayout passes since the counts were last reset.
+     */
+    public int getLayoutCount() {
+        return mLayoutCount;
+    }
 
-        // return true => intercept, cannot trigger onClick event
-        return !couldBecomeClick && (settling || idleAfterScrolled);
+    public void resetPassCounts() {
+        mMeasureCount = 0;
+        mLayoutCount = 0;
     }
 
     @Override
@@ -169,226 +611,891 @@ public class SwipeRevealLayout extends ViewGroup {
      */
     @Override
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
-        for (int index = 0; index < getChildCount(); index++) {
-            final View child = getChildAt(index);
-
-            int left, right, top, bottom;
-            left = right = top = bottom = 0;
-
-            final int minLeft = getPaddingLeft();
-            final int maxRight = Math.max(r - getPaddingRight() - l, 0);
-            final int minTop = getPaddingTop();
-            final int maxBottom = Math.max(b - getPaddingBottom() - t, 0);
-
-            int measuredChildHeight = child.getMeasuredHeight();
-            int measuredChildWidth = child.getMeasuredWidth();
-
-            // need to take account if child size is match_parent
-            final LayoutParams childParams = child.getLayoutParams();
-            boolean matchParentHeight = false;
-            boolean matchParentWidth = false;
-
-            if (childParams != null) {
-                matchParentHeight = (childParams.height == LayoutParams.MATCH_PARENT);
-                matchParentWidth = (childParams.width == LayoutParams.MATCH_PARENT);
-            }
-
-            if (matchParentHeight) {
-                measuredChildHeight = maxBottom - minTop;
-                childParams.height = measuredChildHeight;
+        if (BuildConfig.SWIPE_TRACING) {
+            SwipeTrace.beginSection(SwipeTrace.ROW_LAYOUT);
+            try {
+                layoutRow(l, t, r, b);
+            } finally {
+                SwipeTrace.endSection();
             }
+        } else {
+            layoutRow(l, t, r, b);
+        }
+    }
 
-            if (matchParentWidth) {
-                measuredChildWidth = maxRight - minLeft;
-                childParams.width = measuredChildWidth;
-            }
+    private void layoutRow(int l, int t, int r, int b) {
+        mLayoutCount++;
 
-            switch (mDragEdge) {
-                case DRAG_EDGE_RIGHT:
-                    left = Math.max(r - measuredChildWidth - getPaddingRight() - l, minLeft);
-                    top = Math.min(getPaddingTop(), maxBottom);
-                    right = Math.max(r - getPaddingRight() - l, minLeft);
-                    bottom = Math.min(measuredChildHeight + getPaddingTop(), maxBottom);
-                    break;
+        if (!updateRects(r - l, b - t)) {
+            // same size and drag edge: keep the children where they are (open, closed or
+            // mid-drag) and only lay out the ones that asked for it
+            relayoutIfRequested(mMainView);
+            relayoutIfRequested(mSecondaryView);
+            return;
+        }
 
-                case DRAG_EDGE_LEFT:
-                    left = Math.min(getPaddingLeft(), maxRight);
-                    top = Math.min(getPaddingTop(), maxBottom);
-                    right = Math.min(measuredChildWidth + getPaddingLeft(), maxRight);
-                    bottom = Math.min(measuredChildHeight + getPaddingTop(), maxBottom);
-                    break;
-            }
+        // open(false)/close(false) place each child exactly once
+        if (mIsOpenBeforeInit) {
+            open(false);
+        } else {
+            close(false);
+        }
+    }
 
-            child.layout(left, top, right, bottom);
+    /**
+     * @return false if the open and close rects for the given size did not change.
+     */
+    private boolean updateRects(int width, int height) {
+        final int minLeft = getPaddingLeft();
+        final int maxRight = Math.max(width - getPaddingRight(), 0);
+        final int minTop = getPaddingTop();
+        final int maxBottom = Math.max(height - getPaddingBottom(), 0);
+
+        // close positions resolved from the measured sizes, match_parent children fill the
+        // content box without writing the resolved size back into their LayoutParams
+        final int mainWidth = resolveChildWidth(mMainView, maxRight - minLeft);
+        final int mainHeight = resolveChildHeight(mMainView, maxBottom - minTop);
+        final int secWidth = resolveChildWidth(mSecondaryView, maxRight - minLeft);
+        final int secHeight = resolveChildHeight(mSecondaryView, maxBottom - minTop);
+
+        final int top = Math.min(minTop, maxBottom);
+        final int mainLeft, mainRight, secLeft, secRight;
+
+        if (mDragEdge == DRAG_EDGE_RIGHT) {
+            mainLeft = Math.max(width - mainWidth - getPaddingRight(), minLeft);
+            mainRight = Math.max(width - getPaddingRight(), minLeft);
+            secLeft = Math.max(width - secWidth - getPaddingRight(), minLeft);
+            secRight = Math.max(width - getPaddingRight(), minLeft);
+        } else {
+            mainLeft = Math.min(minLeft, maxRight);
+            mainRight = Math.min(mainWidth + minLeft, maxRight);
+            secLeft = Math.min(minLeft, maxRight);
+            secRight = Math.min(secWidth + minLeft, maxRight);
         }
 
+        final int mainBottom = Math.min(mainHeight + minTop, maxBottom);
+        final int secBottom = Math.min(secHeight + minTop, maxBottom);
+
         // taking account offset when mode is SAME_LEVEL
+        int secOffset = 0;
         if (mMode == MODE_SAME_LEVEL) {
-            switch (mDragEdge) {
-                case DRAG_EDGE_LEFT:
-                    mSecondaryView.offsetLeftAndRight(-mSecondaryView.getWidth());
-                    break;
+            secOffset = (mDragEdge == DRAG_EDGE_LEFT) ? -(secRight - secLeft) : (secRight - secLeft);
+        }
 
-                case DRAG_EDGE_RIGHT:
-                    mSecondaryView.offsetLeftAndRight(mSecondaryView.getWidth());
-                    break;
-            }
+        final boolean geometryUnchanged = mRectsInitialized
+                && mRectMainClose.left == mainLeft && mRectMainClose.top == top
+                && mRectMainClose.right == mainRight && mRectMainClose.bottom == mainBottom
+                && mRectSecClose.left == secLeft + secOffset && mRectSecClose.top == top
+                && mRectSecClose.right == secRight + secOffset && mRectSecClose.bottom == secBottom;
+
+        if (geometryUnchanged) {
+            return false;
         }
 
-        initRects();
+        initRects(mainLeft, top, mainRight, mainBottom, secLeft, secRight, secBottom, secOffset);
+        return true;
+    }
 
-        if (mIsOpenBeforeInit) {
-            open(false);
-        } else {
-            close(false);
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        if (BuildConfig.SWIPE_TRACING) {
+            SwipeTrace.beginSection(SwipeTrace.ROW_MEASURE);
+            try {
+                measureRow(widthMeasureSpec, heightMeasureSpec);
+            } finally {
+                SwipeTrace.endSection();
+            }
+        } else {
+            measureRow(widthMeasureSpec, heightMeasureSpec);
+        }
+    }
+
+    private void measureRow(int widthMeasureSpec, int heightMeasureSpec) {
+        if (getChildCount() < 2) {
+            throw new RuntimeException("Layout must have two children");
+        }
+
+        mMeasureCount++;
+
+        final LayoutParams params = getLayoutParams();
+
+        final int widthMode = MeasureSpec.getMode(widthMeasureSpec);
+        final int heightMode = MeasureSpec.getMode(heightMeasureSpec);
+        final int widthSize = MeasureSpec.getSize(widthMeasureSpec);
+        final int heightSize = MeasureSpec.getSize(heightMeasureSpec);
+
+        int desiredWidth = 0;
+        int desiredHeight = 0;
+
+        // find the largest child, each child is measured once against our own spec
+        for (int i = 0; i < getChildCount(); i++) {
+            final View child = getChildAt(i);
+            measureChild(child, widthMeasureSpec, heightMeasureSpec);
+            desiredWidth = Math.max(child.getMeasuredWidth(), desiredWidth);
+            desiredHeight = Math.max(child.getMeasuredHeight(), desiredHeight);
+        }
+
+        // taking accounts of padding
+        desiredWidth += getPaddingLeft() + getPaddingRight();
+        desiredHeight += getPaddingTop() + getPaddingBottom();
+
+        // adjust desired width
+        if (widthMode == MeasureSpec.EXACTLY) {
+            desiredWidth = widthSize;
+        } else if (widthMode == MeasureSpec.AT_MOST) {
+            if (params != null && params.width == LayoutParams.MATCH_PARENT) {
+                desiredWidth = widthSize;
+            } else {
+                desiredWidth = Math.min(desiredWidth, widthSize);
+            }
+        }
+
+        // adjust desired height
+        if (heightMode == MeasureSpec.EXACTLY) {
+            desiredHeight = heightSize;
+        } else if (heightMode == MeasureSpec.AT_MOST) {
+            if (params != null && params.height == LayoutParams.MATCH_PARENT) {
+                desiredHeight = heightSize;
+            } else {
+                desiredHeight = Math.min(desiredHeight, heightSize);
+            }
+        }
+
+        setMeasuredDimension(desiredWidth, desiredHeight);
+
+        // a match_parent child needs a second measure only when our size was not known up
+        // front, never for rows in a list, which are measured EXACTLY
+        final int contentWidth = Math.max(desiredWidth - getPaddingLeft() - getPaddingRight(), 0);
+        final int contentHeight = Math.max(desiredHeight - getPaddingTop() - getPaddingBottom(), 0);
+
+        for (int i = 0; i < getChildCount(); i++) {
+            fitMatchParent(getChildAt(i), widthMeasureSpec, heightMeasureSpec,
+                    contentWidth, contentHeight);
+        }
+
+        // remembered so a child added after this pass can be measured without a new pass
+        mWidthMeasureSpec = widthMeasureSpec;
+        mHeightMeasureSpec = heightMeasureSpec;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+
+        // the Choreographer would hold the pending frame callbacks, and through them the row
+        cancelSlide();
+        mGestureMetrics.reset();
+
+        // a settle advances in computeScroll, which a detached row no longer gets: jump to
+        // where it was going so the row is reattached in a final state
+        if (isSettling()) {
+            if (mIsOpenBeforeInit) {
+                open(false);
+            } else {
+                close(false);
+            }
+        }
+    }
+
+    @Override
+    public void computeScroll() {
+        if (BuildConfig.SWIPE_TRACING) {
+            SwipeTrace.beginSection(SwipeTrace.ROW_COMPUTE_SCROLL);
+            try {
+                computeRowScroll();
+            } finally {
+                SwipeTrace.endSection();
+            }
+        } else {
+            computeRowScroll();
+        }
+    }
+
+    private void computeRowScroll() {
+        if (mSettler.isSpringRunning() || mOwnDragState == ViewDragHelper.STATE_SETTLING) {
+            final boolean running = mSettler.computeSettle();
+            moveMainTo(mSettler.getLeft());
+            if (running) {
+                ViewCompat.postInvalidateOnAnimation(this);
+            } else {
+                setOwnDragState(ViewDragHelper.STATE_IDLE);
+            }
+            return;
+        }
+
+        if (mDragHelper != null && mDragHelper.continueSettling(true)) {
+            ViewCompat.postInvalidateOnAnimation(this);
+        }
+    }
+
+    private void fitMatchParent(View child, int widthMeasureSpec, int heightMeasureSpec,
+                                int contentWidth, int contentHeight) {
+        final LayoutParams childParams = child.getLayoutParams();
+        if (childParams == null) {
+            return;
+        }
+
+        final boolean fixWidth = childParams.width == LayoutParams.MATCH_PARENT
+                && child.getMeasuredWidth() != contentWidth;
+        final boolean fixHeight = childParams.height == LayoutParams.MATCH_PARENT
+                && child.getMeasuredHeight() != contentHeight;
+
+        if (fixWidth || fixHeight) {
+            child.measure(
+                    fixWidth
+                            ? MeasureSpec.makeMeasureSpec(contentWidth, MeasureSpec.EXACTLY)
+                            : getChildMeasureSpec(widthMeasureSpec,
+                                    getPaddingLeft() + getPaddingRight(), childParams.width),
+                    fixHeight
+                            ? MeasureSpec.makeMeasureSpec(contentHeight, MeasureSpec.EXACTLY)
+                            : getChildMeasureSpec(heightMeasureSpec,
+                                    getPaddingTop() + getPaddingBottom(), childParams.height)
+            );
+        }
+    }
+
+    /**
+     * Inflates the secondary view if it is still a ViewStub, and places it right away once
+     * the layout has been laid out.
+     */
+    private void ensureSecondaryView() {
+        if (!(mSecondaryView instanceof ViewStub)) {
+            return;
+        }
+
+        mSecondaryView = ((ViewStub) mSecondaryView).inflate();
+
+        if (!mRectsInitialized) {
+            // the layout pass requested by the inflation will place it
+            return;
+        }
+
+        measureChild(mSecondaryView, mWidthMeasureSpec, mHeightMeasureSpec);
+        fitMatchParent(mSecondaryView, mWidthMeasureSpec, mHeightMeasureSpec,
+                Math.max(getWidth() - getPaddingLeft() - getPaddingRight(), 0),
+                Math.max(getHeight() - getPaddingTop() - getPaddingBottom(), 0));
+
+        // only the secondary view moves, the main view may be held by the drag helper
+        updateRects(getWidth(), getHeight());
+        if (mRenderMode == RENDER_MODE_TRANSLATION) {
+            mSecondaryView.layout(mRectSecClose.left, mRectSecClose.top,
+                    mRectSecClose.right, mRectSecClose.bottom);
+            if (mMode == MODE_SAME_LEVEL) {
+                mSecondaryView.setTranslationX(mMainOffset);
+            }
+        } else {
+            final Rect secRect = mIsOpenBeforeInit ? mRectSecOpen : mRectSecClose;
+            mSecondaryView.layout(secRect.left, secRect.top, secRect.right, secRect.bottom);
+        }
+    }
+
+    /**
+     * Open the panel to show the secondary view
+     */
+    public void open(boolean animation) {
+        open(animation, 0);
+    }
+
+    /**
+     * @param velocity horizontal velocity (px per second) the settle starts with.
+     */
+    private void open(boolean animation, float velocity) {
+        ensureSecondaryView();
+        mIsOpenBeforeInit = true;
+
+        if (animation) {
+            setState(STATE_OPENING);
+            if (!smoothSlideMainTo(mRectMainOpen, velocity)) {
+                setState(STATE_OPEN);
+            }
+        } else {
+            // the state is final before abort() so its idle callback is ignored
+            setState(STATE_OPEN);
+            abortSettle();
+
+            if (!mRectsInitialized) {
+                // onLayout will place the children from mIsOpenBeforeInit
+                return;
+            }
+
+            placeChildren(mRectMainOpen, mRectSecOpen);
+        }
+
+        ViewCompat.postInvalidateOnAnimation(this);
+    }
+
+    /**
+     * Close the panel to hide the secondary view
+     */
+    public void close(boolean animation) {
+        close(animation, 0);
+    }
+
+    private void close(boolean animation, float velocity) {
+        mIsOpenBeforeInit = false;
+
+        if (animation) {
+            setState(STATE_CLOSING);
+            if (!smoothSlideMainTo(mRectMainClose, velocity)) {
+                setState(STATE_CLOSE);
+            }
+        } else {
+            setState(STATE_CLOSE);
+            abortSettle();
+
+            if (!mRectsInitialized) {
+                return;
+            }
+
+            placeChildren(mRectMainClose, mRectSecClose);
+        }
+
+        ViewCompat.postInvalidateOnAnimation(this);
+    }
+
+    /**
+     * @param renderMode RENDER_MODE_LAYOUT or RENDER_MODE_TRANSLATION.
+     */
+    public void setRenderMode(int renderMode) {
+        if (mRenderMode == renderMode) {
+            return;
+        }
+
+        abortSettle();
+        mRenderMode = renderMode;
+        applyMainOffset(0);
+
+        if (mRectsInitialized) {
+            if (mIsOpenBeforeInit) {
+                placeChildren(mRectMainOpen, mRectSecOpen);
+            } else {
+                placeChildren(mRectMainClose, mRectSecClose);
+            }
+        }
+    }
+
+    public int getRenderMode() {
+        return mRenderMode;
+    }
+
+    /**
+     * @param settleMode SETTLE_MODE_LINEAR or SETTLE_MODE_SPRING.
+     */
+    public void setSettleMode(int settleMode) {
+        if (mSettleMode != settleMode) {
+            abortSettle();
+            mSettleMode = settleMode;
+        }
+    }
+
+    public int getSettleMode() {
+        return mSettleMode;
+    }
+
+    /**
+     * Tunes the spring of SETTLE_MODE_SPRING, see {@link SwipeSpring#setParameters(float, float)}.
+     * The damping ratio must be 1 or more, a bounce would be cut off at the drag range.
+     */
+    public void setSpringParameters(float stiffness, float dampingRatio) {
+        if (dampingRatio < SwipeSpring.DEFAULT_DAMPING_RATIO) {
+            throw new IllegalArgumentException("damping ratio must be 1 or more: " + dampingRatio);
+        }
+        mSettler.setSpringParameters(stiffness, dampingRatio);
+    }
+
+    /**
+     * @param velocity minimum release velocity (dp per second) that counts as a fling.
+     */
+    public void setMinFlingVelocity(int velocity) {
+        mMinFlingVelocity = velocity;
+        mMinFlingVelocityPx = velocity * getDensity();
+        mPhysics.setMinFlingVelocity(mMinFlingVelocityPx);
+    }
+
+    public int getMinFlingVelocity() {
+        return mMinFlingVelocity;
+    }
+
+    /**
+     * @param distance minimum distance (px) the main view is dragged away from its closest
+     *                 edge before the parent is kept from intercepting the touch.
+     */
+    public void setMinDistRequestDisallowParent(int distance) {
+        mMinDistRequestDisallowParentPx = distance;
+    }
+
+    public int getMinDistRequestDisallowParent() {
+        return mMinDistRequestDisallowParentPx;
+    }
+
+    /**
+     * @return false if the main view is already resting at the target.
+     */
+    private boolean smoothSlideMainTo(Rect mainRect, float velocity) {
+        final boolean started;
+        if (mSettleMode == SETTLE_MODE_SPRING) {
+            started = mSettler.startSpring(getMainLeft(), mainRect.left, velocity);
+        } else if (usesDragHelper()) {
+            return getDragHelper().smoothSlideViewTo(mMainView, mainRect.left, mainRect.top);
+        } else {
+            started = mSettler.startScroll(getMainLeft(), mainRect.left);
+        }
+
+        if (started) {
+            setOwnDragState(ViewDragHelper.STATE_SETTLING);
+            ViewCompat.postInvalidateOnAnimation(this);
+        }
+        return started;
+    }
+
+    private void abortSettle() {
+        mSettler.stop();
+        setOwnDragState(ViewDragHelper.STATE_IDLE);
+
+        if (mDragHelper != null) {
+            mDragHelper.abort();
+        }
+    }
+
+    /**
+     * The ViewDragHelper only drives rows laid out by their own touch handling, it moves
+     * the captured view with offsetLeftAndRight and needs the touch events of the row.
+     */
+    private boolean usesDragHelper() {
+        return mRenderMode == RENDER_MODE_LAYOUT && mSwipeController == null;
+    }
+
+    private ViewDragHelper getDragHelper() {
+        if (mDragHelper == null) {
+            mDragHelper = ViewDragHelper.create(this, 1.0f, mDragHelperCallback);
+            mDragHelper.setEdgeTrackingEnabled(ViewDragHelper.EDGE_ALL);
+        }
+        return mDragHelper;
+    }
+
+    /**
+     * For measuring the footprint of the rows: false as long as the row never needed one.
+     */
+    public boolean hasDragHelper() {
+        return mDragHelper != null;
+    }
+
+    private void placeChildren(Rect mainRect, Rect secRect) {
+        if (mRenderMode == RENDER_MODE_TRANSLATION) {
+            // children stay in their closed rects, only their translation changes
+            layoutIfMoved(mMainView, mRectMainClose);
+            layoutIfMoved(mSecondaryView, mRectSecClose);
+            applyMainOffset(mainRect.left - mRectMainClose.left);
+            return;
+        }
+
+        mMainView.layout(
+                mainRect.left,
+                mainRect.top,
+                mainRect.right,
+                mainRect.bottom
+        );
+
+        mSecondaryView.layout(
+                secRect.left,
+                secRect.top,
+                secRect.right,
+                secRect.bottom
+        );
+        notifySlide();
+    }
+
+    private static void layoutIfMoved(View child, Rect rect) {
+        if (child.isLayoutRequested()
+                || child.getLeft() != rect.left || child.getTop() != rect.top
+                || child.getRight() != rect.right || child.getBottom() != rect.bottom) {
+            child.layout(rect.left, rect.top, rect.right, rect.bottom);
+        }
+    }
+
+    private void applyMainOffset(int offset) {
+        mMainOffset = offset;
+        mMainView.setTranslationX(offset);
+        if (mMode == MODE_SAME_LEVEL) {
+            mSecondaryView.setTranslationX(offset);
+        }
+        notifySlide();
+    }
+
+    /**
+     * @return the visible left of the main view, whichever render mode moves it.
+     */
+    private int getMainLeft() {
+        if (mRenderMode == RENDER_MODE_TRANSLATION) {
+            return mMainView.getLeft() + mMainOffset;
+        }
+        return mMainView.getLeft();
+    }
+
+    /**
+     * @return the ViewDragHelper.STATE_* value of whichever render mode is in use.
+     */
+    private int getViewDragState() {
+        if (mOwnDragState != ViewDragHelper.STATE_IDLE || mDragHelper == null) {
+            return mOwnDragState;
+        }
+        return mDragHelper.getViewDragState();
+    }
+
+    /**
+     * Runs the event through the drag, between the nested pre-scroll and scroll passes.
+     */
+    private void processNestedDragEvent(MotionEvent ev) {
+        dispatchNestedPreDrag(ev);
+        if (mNestedOffsetX != 0) {
+            ev.offsetLocation(mNestedOffsetX, 0);
+            processDragEvent(ev);
+            ev.offsetLocation(-mNestedOffsetX, 0);
+        } else {
+            processDragEvent(ev);
+        }
+        dispatchNestedDrag();
+    }
+
+    /**
+     * Offers the move of a horizontally locked gesture to the nested scrolling parents,
+     * what they consume is added to mNestedOffsetX.
+     */
+    private void dispatchNestedPreDrag(MotionEvent ev) {
+        mNestedDx = 0;
+        if (mLockedAxis != ViewCompat.SCROLL_AXIS_HORIZONTAL
+                || ev.getActionMasked() != MotionEvent.ACTION_MOVE) {
+            return;
+        }
+
+        // scroll deltas run against the finger, the remainder below a pixel is kept
+        mNestedDx = (int) (mNestedLastX - ev.getX());
+        mNestedLastX -= mNestedDx;
+        mNestedConsumed[0] = 0;
+        mNestedConsumed[1] = 0;
+        if (mNestedDx != 0 && dispatchNestedPreScroll(mNestedDx, 0, mNestedConsumed, null)) {
+            mNestedOffsetX += mNestedConsumed[0];
+        }
+    }
+
+    /**
+     * Reports the main view's share of the move to the nested scrolling parents, and the
+     * part it did not follow, e.g. past the open edge, as unconsumed.
+     */
+    private void dispatchNestedDrag() {
+        if (mLockedAxis != ViewCompat.SCROLL_AXIS_HORIZONTAL) {
+            return;
+        }
+
+        final int mainLeft = getMainLeft();
+        final int consumed = mNestedLastLeft - mainLeft;
+        mNestedLastLeft = mainLeft;
+        if (mNestedDx != 0) {
+            dispatchNestedScroll(consumed, 0, mNestedDx - mNestedConsumed[0] - consumed, 0, null);
+            mNestedDx = 0;
+        }
+    }
+
+    private void processDragEvent(MotionEvent ev) {
+        if (ev.getActionMasked() == MotionEvent.ACTION_DOWN) {
+            mGestureMetrics.onDown(ev);
+        }
+
+        if (!usesDragHelper()) {
+            processTranslationDrag(ev);
+        } else if (mSettler.isSpringRunning() && ev.getActionMasked() == MotionEvent.ACTION_DOWN) {
+            // catch the row where the spring is, like ViewDragHelper catches its own settle,
+            // the capture below reports the drag so the settle ends without going idle
+            mSettler.stop();
+            mOwnDragState = ViewDragHelper.STATE_IDLE;
+            getDragHelper().processTouchEvent(ev);
+            if (!mLockDrag) {
+                mDragHelper.captureChildView(mMainView, ev.getPointerId(0));
+            }
+        } else {
+            getDragHelper().processTouchEvent(ev);
+        }
+    }
+
+    /**
+     * The counterpart of ViewDragHelper.processTouchEvent for RENDER_MODE_TRANSLATION.
+     */
+    private void processTranslationDrag(MotionEvent ev) {
+        if (mVelocityTracker == null) {
+            mVelocityTracker = VelocityTracker.obtain();
+        }
+
+        switch (ev.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                mVelocityTracker.clear();
+                mVelocityTracker.addMovement(ev);
+                mTranslationDownX = ev.getX();
+                mTranslationDownY = ev.getY();
+                mDragStartOffset = mMainOffset;
+
+                // catch a settling row under the finger, like ViewDragHelper does
+                if (mOwnDragState == ViewDragHelper.STATE_SETTLING && !mLockDrag) {
+                    catchSettle();
+                }
+                break;
+
+            case MotionEvent.ACTION_MOVE:
+                mVelocityTracker.addMovement(ev);
+                final float dx = ev.getX() - mTranslationDownX;
+
+                if (mOwnDragState != ViewDragHelper.STATE_DRAGGING) {
+                    final float dy = ev.getY() - mTranslationDownY;
+                    if (mLockDrag
+                            || Math.abs(dx) <= mTouchSlop
+                            || Math.abs(dx) <= Math.abs(dy)) {
+                        break;
+                    }
+
+                    // start from the current finger position so the row does not jump by the slop
+                    ensureSecondaryView();
+                    mTranslationDownX = ev.getX();
+                    mDragStartOffset = mMainOffset;
+                    setOwnDragState(ViewDragHelper.STATE_DRAGGING);
+                    break;
+                }
+
+                final int left = mPhysics.clampLeft(mRectMainClose.left + mDragStartOffset + (int) dx);
+                applyMainOffset(left - mRectMainClose.left);
+                break;
+
+            case MotionEvent.ACTION_UP:
+                if (mOwnDragState == ViewDragHelper.STATE_DRAGGING) {
+                    mVelocityTracker.addMovement(ev);
+                    mVelocityTracker.computeCurrentVelocity(1000, mMaxFlingVelocity);
+                    releaseOwnDrag(mVelocityTracker.getXVelocity());
+                }
+                break;
+
+            case MotionEvent.ACTION_CANCEL:
+                if (mOwnDragState == ViewDragHelper.STATE_DRAGGING) {
+                    releaseOwnDrag(0);
+                }
+                break;
+        }
+    }
+
+    private void releaseOwnDrag(float xvel) {
+        if (mPhysics.shouldOpenOnRelease(getMainLeft(), xvel)) {
+            open(true, xvel);
+        } else {
+            close(true, xvel);
+        }
+
+        // already at the target, nothing to settle
+        if (mOwnDragState == ViewDragHelper.STATE_DRAGGING) {
+            setOwnDragState(ViewDragHelper.STATE_IDLE);
+        }
+    }
+
+    /**
+     * Stops the settle where it is and turns it into a drag.
+     */
+    private void catchSettle() {
+        mSettler.stop();
+        setOwnDragState(ViewDragHelper.STATE_DRAGGING);
+    }
+
+    /**
+     * While a {@link SwipeController} is set, the row ignores its own touch events and is
+     * driven by the controller.
+     */
+    void setSwipeController(SwipeController controller) {
+        if (mSwipeController == controller) {
+            return;
         }
 
+        abortSettle();
+        mSwipeController = controller;
     }
 
     /**
-     * {@inheritDoc}
+     * Runs an event the controller tracks through the parts of the pipeline that do not move
+     * the main view. Returns the value to pass to {@link #endControlledEvent}.
      */
-    @Override
-    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-        if (getChildCount() < 2) {
-            throw new RuntimeException("Layout must have two children");
-        }
+    int beginControlledEvent(MotionEvent ev) {
+        final int allocationsBefore = mTouchStatsEnabled ? getThreadAllocationCount() : 0;
 
-        final LayoutParams params = getLayoutParams();
+        if (ev.getActionMasked() == MotionEvent.ACTION_DOWN) {
+            mGestureMetrics.onDown(ev);
+        }
+        trackGesture(ev);
+        dispatchNestedPreDrag(ev);
+        return allocationsBefore;
+    }
 
-        final int widthMode = MeasureSpec.getMode(widthMeasureSpec);
-        final int heightMode = MeasureSpec.getMode(heightMeasureSpec);
+    /**
+     * Records an event of the gesture the controller tracks on this row, given in the
+     * coordinates of the list, into the event recorder if one is set.
+     */
+    void recordControlledEvent(MotionEvent ev) {
+        if (mEventRecorder == null) {
+            return;
+        }
 
-        int desiredWidth = 0;
-        int desiredHeight = 0;
+        ev.offsetLocation(-getLeft(), -getTop());
+        mEventRecorder.record(ev, this);
+        ev.offsetLocation(getLeft(), getTop());
+    }
 
-        // first find the largest child
-        for (int i = 0; i < getChildCount(); i++) {
-            final View child = getChildAt(i);
-            measureChild(child, widthMeasureSpec, heightMeasureSpec);
-            desiredWidth = Math.max(child.getMeasuredWidth(), desiredWidth);
-            desiredHeight = Math.max(child.getMeasuredHeight(), desiredHeight);
+    /**
+     * @param intercepted whether the controller took the event from the row's children.
+     */
+    void endControlledEvent(MotionEvent ev, boolean intercepted, int allocationsBefore) {
+        dispatchNestedDrag();
+        if (mTouchStatsEnabled) {
+            recordTouchStats(ev, intercepted, allocationsBefore);
         }
-        // create new measure spec using the largest child width
-        widthMeasureSpec = MeasureSpec.makeMeasureSpec(desiredWidth, widthMode);
-        heightMeasureSpec = MeasureSpec.makeMeasureSpec(desiredHeight, heightMode);
+    }
 
-        final int measuredWidth = MeasureSpec.getSize(widthMeasureSpec);
-        final int measuredHeight = MeasureSpec.getSize(heightMeasureSpec);
+    /**
+     * @return the ViewCompat.SCROLL_AXIS_* value the current gesture was locked to, the
+     * controller only drags a row locked horizontally.
+     */
+    int getLockedAxis() {
+        return mLockedAxis;
+    }
 
-        for (int i = 0; i < getChildCount(); i++) {
-            final View child = getChildAt(i);
-            final LayoutParams childParams = child.getLayoutParams();
+    /**
+     * Called when the controller stops tracking the gesture on this row, whether or not
+     * the finger lifted.
+     */
+    void endControlledGesture() {
+        if (mLockedAxis == ViewCompat.SCROLL_AXIS_HORIZONTAL) {
+            stopNestedScroll();
+        }
+        mLockedAxis = ViewCompat.SCROLL_AXIS_NONE;
+    }
 
-            if (childParams != null) {
-                if (childParams.height == LayoutParams.MATCH_PARENT) {
-                    child.setMinimumHeight(measuredHeight);
-                }
+    /**
+     * @return true if the controller may start dragging this row.
+     */
+    boolean canStartControlledDrag() {
+        return !mLockDrag && mRectsInitialized;
+    }
 
-                if (childParams.width == LayoutParams.MATCH_PARENT) {
-                    child.setMinimumWidth(measuredWidth);
-                }
-            }
+    boolean isSettling() {
+        return getViewDragState() == ViewDragHelper.STATE_SETTLING;
+    }
 
-            measureChild(child, widthMeasureSpec, heightMeasureSpec);
-            desiredWidth = Math.max(child.getMeasuredWidth(), desiredWidth);
-            desiredHeight = Math.max(child.getMeasuredHeight(), desiredHeight);
+    /**
+     * Captures the main view for the controller, catching it if it is settling.
+     */
+    void startControlledDrag() {
+        ensureSecondaryView();
+        mNestedOffsetX = 0;
+        if (mOwnDragState == ViewDragHelper.STATE_SETTLING) {
+            catchSettle();
+        } else {
+            setOwnDragState(ViewDragHelper.STATE_DRAGGING);
         }
+        mControlledStartLeft = getMainLeft();
+    }
 
-        // taking accounts of padding
-        desiredWidth += getPaddingLeft() + getPaddingRight();
-        desiredHeight += getPaddingTop() + getPaddingBottom();
-
-        // adjust desired width
-        if (widthMode == MeasureSpec.EXACTLY) {
-            desiredWidth = measuredWidth;
-        } else {
-            if (params.width == LayoutParams.MATCH_PARENT) {
-                desiredWidth = measuredWidth;
-            }
+    /**
+     * @param dx horizontal distance the finger moved since the drag started, the distance
+     *           consumed by nested scrolling parents is taken off here.
+     */
+    void dragControlled(float dx) {
+        if (mOwnDragState == ViewDragHelper.STATE_DRAGGING) {
+            moveMainTo(mPhysics.clampLeft(mControlledStartLeft + (int) (dx + mNestedOffsetX)));
+        }
+    }
 
-            if (widthMode == MeasureSpec.AT_MOST) {
-                desiredWidth = (desiredWidth > measuredWidth) ? measuredWidth : desiredWidth;
-            }
+    /**
+     * @param xvel release velocity in px per second, 0 when the gesture was cancelled.
+     */
+    void releaseControlledDrag(float xvel) {
+        if (mOwnDragState == ViewDragHelper.STATE_DRAGGING) {
+            releaseOwnDrag(xvel);
         }
+    }
 
-        // adjust desired height
-        if (heightMode == MeasureSpec.EXACTLY) {
-            desiredHeight = measuredHeight;
-        } else {
-            if (params.height == LayoutParams.MATCH_PARENT) {
-                desiredHeight = measuredHeight;
-            }
+    /**
+     * Moves the main view, and in SAME_LEVEL mode the secondary view, the way the render
+     * mode moves them while dragging.
+     */
+    private void moveMainTo(int left) {
+        if (mRenderMode == RENDER_MODE_TRANSLATION) {
+            applyMainOffset(left - mRectMainClose.left);
+            return;
+        }
 
-            if (heightMode == MeasureSpec.AT_MOST) {
-                desiredHeight = (desiredHeight > measuredHeight) ? measuredHeight : desiredHeight;
-            }
+        final int dx = left - mMainView.getLeft();
+        if (dx == 0) {
+            return;
         }
 
-        setMeasuredDimension(desiredWidth, desiredHeight);
+        ViewCompat.offsetLeftAndRight(mMainView, dx);
+        if (mMode == MODE_SAME_LEVEL) {
+            ViewCompat.offsetLeftAndRight(mSecondaryView, dx);
+        }
+        notifySlide();
     }
 
-    @Override
-    public void computeScroll() {
-        if (mDragHelper.continueSettling(true)) {
-            ViewCompat.postInvalidateOnAnimation(this);
+    /**
+     * Reports the drags and settles that bypass the ViewDragHelper through the same path as
+     * the helper's own state changes.
+     */
+    private void setOwnDragState(int state) {
+        if (mOwnDragState == state) {
+            return;
         }
+
+        mOwnDragState = state;
+        onViewDragStateChanged(state);
     }
 
     /**
-     * Open the panel to show the secondary view
+     * @return one of the STATE_* constants.
      */
-    public void open(boolean animation) {
-        mIsOpenBeforeInit = true;
+    public int getState() {
+        return mState;
+    }
 
-        if (animation) {
-            mDragHelper.smoothSlideViewTo(mMainView, mRectMainOpen.left, mRectMainOpen.top);
-        } else {
-            mDragHelper.abort();
+    public boolean isOpened() {
+        return mState == STATE_OPEN;
+    }
 
-            mMainView.layout(
-                    mRectMainOpen.left,
-                    mRectMainOpen.top,
-                    mRectMainOpen.right,
-                    mRectMainOpen.bottom
-            );
+    public boolean isClosed() {
+        return mState == STATE_CLOSE;
+    }
 
-            mSecondaryView.layout(
-                    mRectSecOpen.left,
-                    mRectSecOpen.top,
-                    mRectSecOpen.right,
-                    mRectSecOpen.bottom
-            );
-        }
+    public void setDragStateChangeListener(DragStateChangeListener listener) {
+        mDragStateChangeListener = listener;
+    }
 
-        ViewCompat.postInvalidateOnAnimation(this);
+    public DragStateChangeListener getDragStateChangeListener() {
+        return mDragStateChangeListener;
     }
 
     /**
-     * Close the panel to hide the secondary view
+     * Renders the moving children through a hardware layer while the layout is dragged or
+     * settling, replacing their own layer type meanwhile.
      */
-    public void close(boolean animation) {
-        mIsOpenBeforeInit = false;
-
-        if (animation) {
-            mDragHelper.smoothSlideViewTo(mMainView, mRectMainClose.left, mRectMainClose.top);
-        } else {
-            mDragHelper.abort();
-            mMainView.layout(
-                    mRectMainClose.left,
-                    mRectMainClose.top,
-                    mRectMainClose.right,
-                    mRectMainClose.bottom
-            );
-            mSecondaryView.layout(
-                    mRectSecClose.left,
-                    mRectSecClose.top,
-                    mRectSecClose.right,
-                    mRectSecClose.bottom
-            );
+    public void setHardwareLayerOnDrag(boolean enabled) {
+        if (!enabled) {
+            setDragLayerActive(false);
         }
+        mHardwareLayerOnDrag = enabled;
+    }
 
-        ViewCompat.postInvalidateOnAnimation(this);
+    public boolean isHardwareLayerOnDrag() {
+        return mHardwareLayerOnDrag;
+    }
+
+    /**
+     * @return true while the moving children are rendered through a hardware layer.
+     */
+    public boolean isDragLayerActive() {
+        return mDragLayerActive;
     }
 
     /**
@@ -405,196 +1512,363 @@ public class SwipeRevealLayout extends ViewGroup {
         this.mLockDrag = drag;
     }
 
-    private int getMainOpenLeft() {
-        switch (mDragEdge) {
-            case DRAG_EDGE_LEFT:
-                return mRectMainClose.left + mSecondaryView.getWidth();
+    private void setState(int state) {
+        if (mState == state) {
+            return;
+        }
+
+        mState = state;
+        if (mDragStateChangeListener != null) {
+            mDragStateChangeListener.onDragStateChanged(state);
+        }
+
+        if (mSwipeListener != null && (state == STATE_OPEN || state == STATE_CLOSE)) {
+            // the final slide comes before onOpened/onClosed instead of a frame later
+            flushSlide();
+            if (state == STATE_OPEN) {
+                mSwipeListener.onOpened(this);
+            } else {
+                mSwipeListener.onClosed(this);
+            }
+        }
+    }
+
+    public void setSwipeListener(SwipeListener listener) {
+        mSwipeListener = listener;
+        if (listener == null) {
+            cancelSlide();
+        }
+    }
 
-            case DRAG_EDGE_RIGHT:
-                return mRectMainClose.left - mSecondaryView.getWidth();
+    public SwipeListener getSwipeListener() {
+        return mSwipeListener;
+    }
 
+    /**
+     * Schedules onSlide for the next frame, unless it is already scheduled.
+     */
+    private void notifySlide() {
+        if (mSwipeListener == null || mSlidePending) {
+            return;
+        }
 
-            default:
-                return 0;
+        if (mChoreographer == null) {
+            mChoreographer = Choreographer.getInstance();
         }
+
+        mSlidePending = true;
+        mChoreographer.postFrameCallback(mSlideFrameCallback);
     }
 
-    private int getMainOpenTop() {
-        switch (mDragEdge) {
-            case DRAG_EDGE_LEFT:
-                return mRectMainClose.top;
+    private void flushSlide() {
+        if (mSlidePending) {
+            cancelSlide();
+            dispatchSlide();
+        }
+    }
 
-            case DRAG_EDGE_RIGHT:
-                return mRectMainClose.top;
+    private void cancelSlide() {
+        if (mSlidePending) {
+            mSlidePending = false;
+            mChoreographer.removeFrameCallback(mSlideFrameCallback);
+        }
+    }
 
+    private void dispatchSlide() {
+        if (mSwipeListener == null || !mRectsInitialized) {
+            return;
+        }
 
-            default:
-                return 0;
+        final float slideOffset = mPhysics.getSlideOffset(getMainLeft());
+        if (slideOffset != mLastSlideOffset) {
+            mLastSlideOffset = slideOffset;
+            mSwipeListener.onSlide(this, slideOffset);
         }
     }
 
-    private int getSecOpenLeft() {
-        return mRectSecClose.left;
+    /**
+     * Records every swiped gesture of this layout into the recorder, which can be shared by
+     * every row of a list. Pass null to stop recording.
+     */
+    public void setGestureRecorder(SwipeGestureRecorder recorder) {
+        mGestureMetrics.setRecorder(recorder);
+    }
+
+    public SwipeGestureRecorder getGestureRecorder() {
+        return mGestureMetrics.getRecorder();
+    }
+
+    /**
+     * Records the raw touch events this layout processes, to be replayed with
+     * {@link SwipeEventRecorder#replay}. Pass null to stop recording.
+     */
+    public void setEventRecorder(SwipeEventRecorder recorder) {
+        mEventRecorder = recorder;
+    }
+
+    public SwipeEventRecorder getEventRecorder() {
+        return mEventRecorder;
+    }
+
+    private final Choreographer.FrameCallback mSlideFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mSlidePending = false;
+            dispatchSlide();
+        }
+    };
+
+    /**
+     * Common handling of the ViewDragHelper.STATE_* changes of both render modes.
+     */
+    private void onViewDragStateChanged(int state) {
+        setDragLayerActive(state != ViewDragHelper.STATE_IDLE);
+        mGestureMetrics.onDragStateChanged(state,
+                getMainLeft() == mRectMainClose.left ? STATE_CLOSE : STATE_OPEN);
+
+        switch (state) {
+            case ViewDragHelper.STATE_DRAGGING:
+                setState(STATE_DRAGGING);
+                break;
+
+            case ViewDragHelper.STATE_IDLE:
+                // only resolve transitional states, open(false)/close(false) already set theirs
+                if (mState == STATE_DRAGGING || mState == STATE_OPENING || mState == STATE_CLOSING) {
+                    setState(getMainLeft() == mRectMainClose.left ? STATE_CLOSE : STATE_OPEN);
+                }
+                break;
+        }
     }
 
-    private int getSecOpenTop() {
-        return mRectSecClose.top;
+    private void setDragLayerActive(boolean active) {
+        if (!mHardwareLayerOnDrag || mDragLayerActive == active) {
+            return;
+        }
+
+        mDragLayerActive = active;
+
+        final int layerType = active ? LAYER_TYPE_HARDWARE : LAYER_TYPE_NONE;
+        mMainView.setLayerType(layerType, null);
+        if (mMode == MODE_SAME_LEVEL) {
+            mSecondaryView.setLayerType(layerType, null);
+        }
     }
 
-    private void initRects() {
+    private void initRects(int mainLeft, int top, int mainRight, int mainBottom,
+                           int secLeft, int secRight, int secBottom, int secOffset) {
+        final int secWidth = secRight - secLeft;
+        final int mainOpenOffset = (mDragEdge == DRAG_EDGE_LEFT) ? secWidth : -secWidth;
+
         // close position of main view
-        mRectMainClose.set(
-                mMainView.getLeft(),
-                mMainView.getTop(),
-                mMainView.getRight(),
-                mMainView.getBottom()
-        );
+        mRectMainClose.set(mainLeft, top, mainRight, mainBottom);
 
         // close position of secondary view
-        mRectSecClose.set(
-                mSecondaryView.getLeft(),
-                mSecondaryView.getTop(),
-                mSecondaryView.getRight(),
-                mSecondaryView.getBottom()
-        );
+        mRectSecClose.set(secLeft + secOffset, top, secRight + secOffset, secBottom);
 
         // open position of the main view
-        mRectMainOpen.set(
-                getMainOpenLeft(),
-                getMainOpenTop(),
-                getMainOpenLeft() + mMainView.getWidth(),
-                getMainOpenTop() + mMainView.getHeight()
-        );
+        mRectMainOpen.set(mainLeft + mainOpenOffset, top, mainRight + mainOpenOffset, mainBottom);
 
-        // open position of the secondary view
-        mRectSecOpen.set(
-                getSecOpenLeft(),
-                getSecOpenTop(),
-                getSecOpenLeft() + mSecondaryView.getWidth(),
-                getSecOpenTop() + mSecondaryView.getHeight()
-        );
+        // open position of the secondary view, in SAME_LEVEL mode it slides in with the main view
+        mRectSecOpen.set(secLeft, top, secRight, secBottom);
+        if (mMode != MODE_SAME_LEVEL) {
+            mRectSecOpen.set(mRectSecClose);
+        }
+
+        mPhysics.setGeometry(mainLeft, mainRight, secWidth);
+        mRectsInitialized = true;
+    }
+
+    private int resolveChildWidth(View child, int contentWidth) {
+        final LayoutParams childParams = child.getLayoutParams();
+        if (childParams != null && childParams.width == LayoutParams.MATCH_PARENT) {
+            return contentWidth;
+        }
+        return child.getMeasuredWidth();
+    }
+
+    private int resolveChildHeight(View child, int contentHeight) {
+        final LayoutParams childParams = child.getLayoutParams();
+        if (childParams != null && childParams.height == LayoutParams.MATCH_PARENT) {
+            return contentHeight;
+        }
+        return child.getMeasuredHeight();
     }
 
-    private boolean couldBecomeClick(MotionEvent ev) {
-        return isInMainView(ev) && !shouldInitiateADrag();
+    private static void relayoutIfRequested(View child) {
+        if (child.isLayoutRequested()) {
+            child.layout(child.getLeft(), child.getTop(), child.getRight(), child.getBottom());
+        }
     }
 
+
     private boolean isInMainView(MotionEvent ev) {
         float x = ev.getX();
         float y = ev.getY();
 
         boolean withinVertical = mMainView.getTop() <= y && y <= mMainView.getBottom();
-        boolean withinHorizontal = mMainView.getLeft() <= x && x <= mMainView.getRight();
+        final int mainLeft = getMainLeft();
+        boolean withinHorizontal = mainLeft <= x && x <= mainLeft + mMainView.getWidth();
 
         return withinVertical && withinHorizontal;
     }
 
-    private boolean shouldInitiateADrag() {
-        float minDistToInitiateDrag = mDragHelper.getTouchSlop();
-        return mDragDist >= minDistToInitiateDrag;
+    /**
+     * Locks the gesture to the axis it mostly moved along once it leaves the touch slop,
+     * a horizontal one is claimed from the parent, a vertical one left to it.
+     */
+    private void trackGesture(MotionEvent ev) {
+        switch (ev.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                mIsScrolling = false;
+                mHasDisallowed = false;
+                mLockedAxis = ViewCompat.SCROLL_AXIS_NONE;
+                mDownX = ev.getX();
+                mDownY = ev.getY();
+                mNestedDx = 0;
+                mNestedOffsetX = 0;
+                break;
+
+            case MotionEvent.ACTION_MOVE:
+                if (!mIsScrolling) {
+                    final float dx = ev.getX() - mDownX;
+                    final float dy = ev.getY() - mDownY;
+                    if (dx * dx + dy * dy <= mTouchSlopSquare) {
+                        break;
+                    }
+                    mIsScrolling = true;
+
+                    if (Math.abs(dx) > Math.abs(dy)) {
+                        mLockedAxis = ViewCompat.SCROLL_AXIS_HORIZONTAL;
+                        mGestureMetrics.onCapture(ev);
+                        mNestedLastX = ev.getX();
+                        mNestedLastLeft = getMainLeft();
+                        startNestedScroll(ViewCompat.SCROLL_AXIS_HORIZONTAL);
+                    } else {
+                        mLockedAxis = ViewCompat.SCROLL_AXIS_VERTICAL;
+                        yieldToVerticalScroll();
+                    }
+                }
+
+                // a controller claims the gesture from the parent of the list itself
+                if (mLockedAxis == ViewCompat.SCROLL_AXIS_HORIZONTAL && !mHasDisallowed
+                        && mSwipeController == null && getParent() != null
+                        && mPhysics.getDistToClosestEdge(getMainLeft()) >= mMinDistRequestDisallowParentPx) {
+                    mHasDisallowed = true;
+                    getParent().requestDisallowInterceptTouchEvent(true);
+                }
+                break;
+
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                if (mLockedAxis == ViewCompat.SCROLL_AXIS_HORIZONTAL) {
+                    stopNestedScroll();
+                }
+                break;
+        }
     }
 
-    private void accumulateDragDist(MotionEvent ev) {
-        final int action = ev.getAction();
-        if (action == MotionEvent.ACTION_DOWN) {
-            mDragDist = 0;
+    /**
+     * Leaves a gesture that turned out vertical to the parent: the main view stops following
+     * the finger and settles back to the state the gesture found it in.
+     */
+    private void yieldToVerticalScroll() {
+        if (getViewDragState() != ViewDragHelper.STATE_DRAGGING) {
             return;
         }
 
-        float dragged = Math.abs(ev.getX() - mPrevX);
-
-        mDragDist += dragged;
-    }
+        if (mDragHelper != null) {
+            mDragHelper.abort();
+        }
 
-    private void init(Context context, AttributeSet attrs) {
-        if (attrs != null && context != null) {
-            TypedArray a = context.getTheme().obtainStyledAttributes(
-                    attrs,
-                    R.styleable.SwipeRevealLayout,
-                    0, 0
-            );
+        if (mIsOpenBeforeInit) {
+            open(true);
+        } else {
+            close(true);
+        }
 
-            mDragEdge = a.getInteger(R.styleable.SwipeRevealLayout_dragFromEdge, DRAG_EDGE_LEFT);
-            mMode = MODE_NORMAL;
-            mMinFlingVelocity = DEFAULT_MIN_FLING_VELOCITY;
-            mMinDistRequestDisallowParent = DEFAULT_MIN_DIST_REQUEST_DISALLOW_PARENT;
+        // already where the gesture found it, nothing to settle
+        if (mOwnDragState == ViewDragHelper.STATE_DRAGGING) {
+            setOwnDragState(ViewDragHelper.STATE_IDLE);
         }
+    }
 
-        mDragHelper = ViewDragHelper.create(this, 1.0f, mDragHelperCallback);
-        mDragHelper.setEdgeTrackingEnabled(ViewDragHelper.EDGE_ALL);
+    private void rememberEvent(MotionEvent ev) {
+        mLastEventTime = ev.getEventTime();
+        mLastEventAction = ev.getAction();
+        mLastEventX = ev.getX();
+    }
 
-        mGestureDetector = new GestureDetectorCompat(context, mGestureListener);
+    private boolean isSameAsLastEvent(MotionEvent ev) {
+        return ev.getEventTime() == mLastEventTime
+                && ev.getAction() == mLastEventAction
+                && ev.getX() == mLastEventX;
     }
 
-    private final GestureDetector.OnGestureListener mGestureListener = new GestureDetector.SimpleOnGestureListener() {
-        boolean hasDisallowed = false;
+    @SuppressWarnings("deprecation")
+    private static int getThreadAllocationCount() {
+        return Debug.getThreadAllocCount();
+    }
 
-        @Override
-        public boolean onDown(MotionEvent e) {
-            mIsScrolling = false;
-            hasDisallowed = false;
-            return true;
+    private void recordTouchStats(MotionEvent ev, boolean intercepted, int allocationsBefore) {
+        mTouchEventCount++;
+        mTouchAllocationCount += getThreadAllocationCount() - allocationsBefore;
+        if (intercepted) {
+            mInterceptCount++;
         }
-
-        @Override
-        public boolean onFling(MotionEvent e1, MotionEvent e2, float velocityX, float velocityY) {
-            mIsScrolling = true;
-            return false;
+        if (ev.getActionMasked() == MotionEvent.ACTION_CANCEL) {
+            mCancelCount++;
         }
+    }
 
-        @Override
-        public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
-            mIsScrolling = true;
-
-            if (getParent() != null) {
-                boolean shouldDisallow;
-
-                if (!hasDisallowed) {
-                    shouldDisallow = getDistToClosestEdge() >= mMinDistRequestDisallowParent;
-                    if (shouldDisallow) {
-                        hasDisallowed = true;
-                    }
-                } else {
-                    shouldDisallow = true;
-                }
+    private void init(Context context, AttributeSet attrs) {
+        int minDistRequestDisallowParentPx = -1;
 
-                // disallow parent to intercept touch event so that the layout will work
-                // properly on RecyclerView or view that handles scroll gesture.
-                getParent().requestDisallowInterceptTouchEvent(shouldDisallow);
-            }
+        if (attrs != null && context != null) {
+            TypedArray a = context.getTheme().obtainStyledAttributes(
+                    attrs,
+                    R.styleable.SwipeRevealLayout,
+                    0, 0
+            );
 
-            return false;
+            mDragEdge = a.getInteger(R.styleable.SwipeRevealLayout_dragFromEdge, DRAG_EDGE_LEFT);
+            mHardwareLayerOnDrag = a.getBoolean(R.styleable.SwipeRevealLayout_hardwareLayerOnDrag, false);
+            mRenderMode = a.getInt(R.styleable.SwipeRevealLayout_renderMode, RENDER_MODE_LAYOUT);
+            mMode = a.getInt(R.styleable.SwipeRevealLayout_mode, MODE_NORMAL);
+            mMinFlingVelocity = a.getInt(R.styleable.SwipeRevealLayout_flingVelocity,
+                    DEFAULT_MIN_FLING_VELOCITY);
+            minDistRequestDisallowParentPx = a.getDimensionPixelSize(
+                    R.styleable.SwipeRevealLayout_minDistRequestDisallowParent, -1);
+            mSettleMode = a.getInt(R.styleable.SwipeRevealLayout_settleMode, SETTLE_MODE_LINEAR);
+            setSpringParameters(
+                    a.getFloat(R.styleable.SwipeRevealLayout_springStiffness, SwipeSpring.DEFAULT_STIFFNESS),
+                    a.getFloat(R.styleable.SwipeRevealLayout_springDampingRatio, SwipeSpring.DEFAULT_DAMPING_RATIO));
+            a.recycle();
         }
-    };
 
-    private int getDistToClosestEdge() {
-        switch (mDragEdge) {
-            case DRAG_EDGE_LEFT:
-                final int pivotRight = mRectMainClose.left + mSecondaryView.getWidth();
+        final float density = getDensity();
+        mMinFlingVelocityPx = mMinFlingVelocity * density;
+        mMinDistRequestDisallowParentPx = minDistRequestDisallowParentPx >= 0
+                ? minDistRequestDisallowParentPx
+                : (int) (DEFAULT_MIN_DIST_REQUEST_DISALLOW_PARENT * density);
 
-                return Math.min(
-                        mMainView.getLeft() - mRectMainClose.left,
-                        pivotRight - mMainView.getLeft()
-                );
+        mMaxFlingVelocity = ViewConfiguration.get(context).getScaledMaximumFlingVelocity();
 
-            case DRAG_EDGE_RIGHT:
-                final int pivotLeft = mRectMainClose.right - mSecondaryView.getWidth();
+        // the slop ViewDragHelper.create(this, 1.0f, ...) would use
+        final int touchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
+        mTouchSlop = touchSlop;
+        mTouchSlopSquare = touchSlop * touchSlop;
 
-                return Math.min(
-                        mMainView.getRight() - pivotLeft,
-                        mRectMainClose.right - mMainView.getRight()
-                );
-        }
+        mPhysics.setDragEdge(mDragEdge);
+        mPhysics.setMinFlingVelocity(mMinFlingVelocityPx);
 
-        return 0;
+        mPhysics.setTouchSlop(touchSlop);
     }
 
-    private int getHalfwayPivotHorizontal() {
-        if (mDragEdge == DRAG_EDGE_LEFT) {
-            return mRectMainClose.left + mSecondaryView.getWidth() / 2;
-        } else {
-            return mRectMainClose.right - mSecondaryView.getWidth() / 2;
-        }
+    /**
+     * @return the px per dp of the display, for the thresholds given in dp.
+     */
+    private float getDensity() {
+        return (float) getResources().getDisplayMetrics().densityDpi / DisplayMetrics.DENSITY_DEFAULT;
     }
 
     private final ViewDragHelper.Callback mDragHelperCallback = new ViewDragHelper.Callback() {
@@ -604,65 +1878,27 @@ public class SwipeRevealLayout extends ViewGroup {
             if (mLockDrag)
                 return false;
 
+            // called on every down: the actions wait for the first real move, see below
             mDragHelper.captureChildView(mMainView, pointerId);
             return false;
         }
 
         @Override
         public int clampViewPositionHorizontal(View child, int left, int dx) {
-            switch (mDragEdge) {
-                case DRAG_EDGE_RIGHT:
-                    return Math.max(
-                            Math.min(left, mRectMainClose.left),
-                            mRectMainClose.left - mSecondaryView.getWidth()
-                    );
-
-                case DRAG_EDGE_LEFT:
-                    return Math.max(
-                            Math.min(left, mRectMainClose.left + mSecondaryView.getWidth()),
-                            mRectMainClose.left
-                    );
-
-                default:
-                    return child.getLeft();
+            // the stub is 0 wide, the main view stays closed until the finger passes the
+            // slop and the actions are inflated, a tap never inflates them
+            if (mSecondaryView instanceof ViewStub && Math.abs(left - mRectMainClose.left) > mTouchSlop) {
+                ensureSecondaryView();
             }
+            return mPhysics.clampLeft(left);
         }
 
         @Override
         public void onViewReleased(View releasedChild, float xvel, float yvel) {
-            final boolean velRightExceeded = pxToDp((int) xvel) >= mMinFlingVelocity;
-            final boolean velLeftExceeded = pxToDp((int) xvel) <= -mMinFlingVelocity;
-
-            final int pivotHorizontal = getHalfwayPivotHorizontal();
-
-            switch (mDragEdge) {
-                case DRAG_EDGE_RIGHT:
-                    if (velRightExceeded) {
-                        close(true);
-                    } else if (velLeftExceeded) {
-                        open(true);
-                    } else {
-                        if (mMainView.getRight() < pivotHorizontal) {
-                            open(true);
-                        } else {
-                            close(true);
-                        }
-                    }
-                    break;
-
-                case DRAG_EDGE_LEFT:
-                    if (velRightExceeded) {
-                        open(true);
-                    } else if (velLeftExceeded) {
-                        close(true);
-                    } else {
-                        if (mMainView.getLeft() < pivotHorizontal) {
-                            close(true);
-                        } else {
-                            open(true);
-                        }
-                    }
-                    break;
+            if (mPhysics.shouldOpenOnRelease(mMainView.getLeft(), xvel)) {
+                open(true, xvel);
+            } else {
+                close(true, xvel);
             }
         }
 
@@ -681,10 +1917,22 @@ public class SwipeRevealLayout extends ViewGroup {
                     && edgeFlags == ViewDragHelper.EDGE_RIGHT;
 
             if (edgeStartLeft || edgeStartRight) {
+                ensureSecondaryView();
                 mDragHelper.captureChildView(mMainView, pointerId);
             }
         }
 
+        @Override
+        public void onViewDragStateChanged(int state) {
+            super.onViewDragStateChanged(state);
+
+            if (state == ViewDragHelper.STATE_IDLE && mSettler.isSpringRunning()) {
+                // released into the spring, the spring reports idle when it rests
+                return;
+            }
+            SwipeRevealLayout.this.onViewDragStateChanged(state);
+        }
+
         @Override
         public void onViewPositionChanged(View changedView, int left, int top, int dx, int dy) {
             super.onViewPositionChanged(changedView, left, top, dx, dy);
@@ -695,13 +1943,8 @@ public class SwipeRevealLayout extends ViewGroup {
                     mSecondaryView.offsetTopAndBottom(dy);
                 }
             }
+            notifySlide();
             ViewCompat.postInvalidateOnAnimation(SwipeRevealLayout.this);
         }
     };
-
-    private int pxToDp(int px) {
-        Resources resources = getContext().getResources();
-        DisplayMetrics metrics = resources.getDisplayMetrics();
-        return (int) (px / ((float) metrics.densityDpi / DisplayMetrics.DENSITY_DEFAULT));
-    }
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import android.content.Context;
+import android.view.animation.AnimationUtils;
+import android.widget.OverScroller;
+
+/**
+ * Settles the main view of a {@link SwipeRevealLayout} when the ViewDragHelper does not:
+ * with a {@link SwipeSpring} in SETTLE_MODE_SPRING, with an OverScroller otherwise.
+ * The layout moves the main view to {@link #getLeft()} after each {@link #computeSettle()}.
+ */
+final class SwipeSettler {
+
+    private final Context mContext;
+    private final SwipePhysics mPhysics;
+    private final SwipeSpring mSpring = new SwipeSpring();
+    private boolean mSpringRunning = false;
+    private long mSpringFrameMillis = 0;
+
+    /**
+     * Created on the first linear settle, spring rows never need one.
+     */
+    private OverScroller mScroller;
+
+    private int mLeft;
+
+    SwipeSettler(Context context, SwipePhysics physics) {
+        mContext = context;
+        mPhysics = physics;
+    }
+
+    void setSpringParameters(float stiffness, float dampingRatio) {
+        mSpring.setParameters(stiffness, dampingRatio);
+    }
+
+    boolean isSpringRunning() {
+        return mSpringRunning;
+    }
+
+    /**
+     * @return false if the main view is already resting at the target.
+     */
+    boolean startSpring(int left, int targetLeft, float velocity) {
+        if (left == targetLeft && velocity == 0) {
+            return false;
+        }
+
+        if (mSpringRunning && velocity == 0) {
+            // retargeted mid-settle, e.g. open(true) while closing: keep the momentum
+            velocity = mSpring.getVelocity();
+        }
+        mSpring.start(left, velocity, targetLeft);
+        mSpringRunning = true;
+        mSpringFrameMillis = AnimationUtils.currentAnimationTimeMillis();
+        mLeft = left;
+        return true;
+    }
+
+    /**
+     * @return false if the main view is already at the target.
+     */
+    boolean startScroll(int left, int targetLeft) {
+        if (left == targetLeft) {
+            return false;
+        }
+
+        if (mScroller == null) {
+            mScroller = new OverScroller(mContext);
+        }
+        mScroller.startScroll(left, 0, targetLeft - left, 0);
+        mLeft = left;
+        return true;
+    }
+
+    /**
+     * Stops the settle where it is.
+     */
+    void stop() {
+        mSpringRunning = false;
+        if (mScroller != null) {
+            mScroller.abortAnimation();
+        }
+    }
+
+    /**
+     * @return false once the settle ended, {@link #getLeft()} is then its target.
+     */
+    boolean computeSettle() {
+        if (mSpringRunning) {
+            return advanceSpring();
+        }
+
+        if (mScroller == null) {
+            return false;
+        }
+        if (mScroller.computeScrollOffset()) {
+            mLeft = mScroller.getCurrX();
+        }
+        return !mScroller.isFinished();
+    }
+
+    /**
+     * @return where the main view's left is at the current frame of the settle.
+     */
+    int getLeft() {
+        return mLeft;
+    }
+
+    private boolean advanceSpring() {
+        final long frameMillis = AnimationUtils.currentAnimationTimeMillis();
+        final float elapsed = (frameMillis - mSpringFrameMillis) / 1000f;
+        mSpringFrameMillis = frameMillis;
+
+        mSpring.advance(elapsed);
+        final int left = Math.round(mSpring.getPosition());
+
+        // the target is the closed or the opened position, a spring carried past it by the
+        // release velocity would leave the main view's range: end the settle there
+        if (mSpring.isAtRest() || mPhysics.clampLeft(left) != left) {
+            mLeft = (int) mSpring.getTarget();
+            mSpringRunning = false;
+            return false;
+        }
+
+        mLeft = left;
+        return true;
+    }
+}
@@ -0,0 +1,152 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+/**
+ * Damped spring that settles the main view of a swipe, free of any Android type like
+ * {@link SwipePhysics}. The release velocity is the initial velocity of the spring, so a
+ * fast fling reaches its target sooner than a slow release instead of taking a fixed
+ * duration. The position is the closed form solution of the spring at the elapsed time,
+ * so it does not drift with the frame rate and the spring can be restarted from wherever
+ * it is at any time.
+ * Positions are in pixels, velocities in pixels per second.
+ */
+public final class SwipeSpring {
+
+    /**
+     * Settles a 100dp action strip in about 250ms from a standing start at xxhdpi, and
+     * in about 100ms when flung.
+     */
+    public static final float DEFAULT_STIFFNESS = 1000f;
+
+    /**
+     * Critically damped: the fastest settle that does not oscillate. Started from rest it
+     * never overshoots, but a velocity towards the target can carry it past the target
+     * once before it comes back.
+     */
+    public static final float DEFAULT_DAMPING_RATIO = 1f;
+
+    /**
+     * The spring is at rest once it is within this distance of its target...
+     */
+    private static final float REST_DISTANCE = 1f;
+
+    /**
+     * ...and slower than this velocity.
+     */
+    private static final float REST_VELOCITY = 50f;
+
+    private float mStiffness = DEFAULT_STIFFNESS;
+    private float mDampingRatio = DEFAULT_DAMPING_RATIO;
+
+    private float mTarget;
+
+    /**
+     * Displacement from the target and velocity when the spring was started.
+     */
+    private float mStartDisplacement;
+    private float mStartVelocity;
+
+    private float mElapsed;
+    private float mPosition;
+    private float mVelocity;
+
+    /**
+     * @param stiffness    spring constant for a unit mass, higher settles faster.
+     * @param dampingRatio 1 or more for no oscillation, below 1 to bounce around the target.
+     */
+    public void setParameters(float stiffness, float dampingRatio) {
+        if (stiffness <= 0 || dampingRatio <= 0) {
+            throw new IllegalArgumentException(
+                    "stiffness and damping ratio must be positive: " + stiffness + ", " + dampingRatio);
+        }
+        mStiffness = stiffness;
+        mDampingRatio = dampingRatio;
+    }
+
+    public float getStiffness() {
+        return mStiffness;
+    }
+
+    public float getDampingRatio() {
+        return mDampingRatio;
+    }
+
+    /**
+     * Starts the spring at {@code position} moving at {@code velocity} towards {@code target}.
+     */
+    public void start(float position, float velocity, float target) {
+        mTarget = target;
+        mStartDisplacement = position - target;
+        mStartVelocity = velocity;
+        mElapsed = 0;
+        mPosition = position;
+        mVelocity = velocity;
+    }
+
+    /**
+     * Advances the spring by {@code seconds}.
+     *
+     * @return the new position.
+     */
+    public float advance(float seconds) {
+        mElapsed += seconds;
+        solve(mElapsed);
+        return mPosition;
+    }
+
+    public float getPosition() {
+        return mPosition;
+    }
+
+    public float getVelocity() {
+        return mVelocity;
+    }
+
+    public float getTarget() {
+        return mTarget;
+    }
+
+    public boolean isAtRest() {
+        return Math.abs(mPosition - mTarget) < REST_DISTANCE && Math.abs(mVelocity) < REST_VELOCITY;
+    }
+
+    private void solve(float t) {
+        final double omega = Math.sqrt(mStiffness);
+        final double zeta = mDampingRatio;
+        final double x0 = mStartDisplacement;
+        final double v0 = mStartVelocity;
+
+        final double x;
+        final double v;
+        if (zeta < 1) {
+            // under damped
+            final double omegaD = omega * Math.sqrt(1 - zeta * zeta);
+            final double a = x0;
+            final double b = (v0 + zeta * omega * x0) / omegaD;
+            final double decay = Math.exp(-zeta * omega * t);
+            final double cos = Math.cos(omegaD * t);
+            final double sin = Math.sin(omegaD * t);
+            x = decay * (a * cos + b * sin);
+            v = decay * ((b * omegaD - zeta * omega * a) * cos - (a * omegaD + zeta * omega * b) * sin);
+        } else if (zeta == 1) {
+            // critically damped
+            final double b = v0 + omega * x0;
+            final double decay = Math.exp(-omega * t);
+            x = (x0 + b * t) * decay;
+            v = (b - omega * (x0 + b * t)) * decay;
+        } else {
+            // over damped
+            final double root = omega * Math.sqrt(zeta * zeta - 1);
+            final double r1 = -zeta * omega + root;
+            final double r2 = -zeta * omega - root;
+            final double c2 = (v0 - r1 * x0) / (r2 - r1);
+            final double c1 = x0 - c2;
+            final double e1 = Math.exp(r1 * t);
+            final double e2 = Math.exp(r2 * t);
+            x = c1 * e1 + c2 * e2;
+            v = c1 * r1 * e1 + c2 * r2 * e2;
+        }
+
+        mPosition = (float) (mTarget + x);
+        mVelocity = (float) v;
+    }
+}
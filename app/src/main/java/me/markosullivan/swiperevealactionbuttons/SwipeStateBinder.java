@@ -0,0 +1,198 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import java.util.Arrays;
+
+/**
+ * Remembers the open/closed state of {@link SwipeRevealLayout} rows by the stable id of the
+ * item they show, so that a recycled row does not inherit the state of the row it last
+ * displayed. Call {@link #bind(SwipeRevealLayout, long)} from onBindViewHolder.
+ */
+public class SwipeStateBinder {
+
+    private final LongByteMap mStates = new LongByteMap();
+
+    private boolean mOpenOnlyOne = false;
+
+    /**
+     * The row currently holding the single open slot, only tracked when mOpenOnlyOne is set.
+     */
+    private RowBinding mOpenedBinding;
+    private long mOpenedId;
+
+    /**
+     * Restores the state recorded for {@code id} into the layout and starts recording the
+     * layout's state changes against that id. Apart from the first bind of a layout,
+     * this allocates nothing.
+     */
+    public void bind(SwipeRevealLayout swipeLayout, long id) {
+        final RowBinding binding;
+        final SwipeRevealLayout.DragStateChangeListener listener
+                = swipeLayout.getDragStateChangeListener();
+
+        if (listener instanceof RowBinding && ((RowBinding) listener).mOwner == this) {
+            binding = (RowBinding) listener;
+        } else {
+            binding = new RowBinding(swipeLayout);
+            swipeLayout.setDragStateChangeListener(binding);
+        }
+
+        binding.mId = id;
+        binding.mBound = true;
+
+        final int state = mStates.get(id, (byte) SwipeRevealLayout.STATE_CLOSE);
+        if (state == SwipeRevealLayout.STATE_OPEN || state == SwipeRevealLayout.STATE_OPENING) {
+            swipeLayout.open(false);
+        } else {
+            swipeLayout.close(false);
+        }
+
+        if (mOpenOnlyOne && mOpenedBinding != null && mOpenedId == id) {
+            mOpenedBinding = binding;
+        } else if (mOpenOnlyOne && mOpenedBinding == null && state == SwipeRevealLayout.STATE_OPEN) {
+            // open from restored state, it holds the single open slot from now on
+            mOpenedBinding = binding;
+            mOpenedId = id;
+        }
+    }
+
+    /**
+     * Stops recording the layout's state changes, for rows that show no item (placeholders).
+     * The layout is closed without touching the state recorded for the item it showed before.
+     */
+    public void unbind(SwipeRevealLayout swipeLayout) {
+        final SwipeRevealLayout.DragStateChangeListener listener
+                = swipeLayout.getDragStateChangeListener();
+
+        if (listener instanceof RowBinding && ((RowBinding) listener).mOwner == this) {
+            ((RowBinding) listener).mBound = false;
+        }
+        swipeLayout.close(false);
+    }
+
+    /**
+     * @param openOnlyOne if true, opening a row closes the previously opened one.
+     */
+    public void setOpenOnlyOne(boolean openOnlyOne) {
+        mOpenOnlyOne = openOnlyOne;
+        if (!openOnlyOne) {
+            mOpenedBinding = null;
+        }
+    }
+
+    /**
+     * @return the last recorded STATE_* value for the item id.
+     */
+    public int getState(long id) {
+        return mStates.get(id, (byte) SwipeRevealLayout.STATE_CLOSE);
+    }
+
+    public boolean isOpened(long id) {
+        return getState(id) == SwipeRevealLayout.STATE_OPEN;
+    }
+
+    /**
+     * Saves the open rows as their item ids, sorted, for the instance state of the list:
+     * 8 bytes per open row however long the list, instead of one Bundle per row.
+     * Rows still opening are saved as open.
+     */
+    public long[] getOpenIds() {
+        final long[] ids = new long[mStates.size()];
+        final int[] count = new int[1];
+        mStates.forEach(new LongByteMap.Visitor() {
+            @Override
+            public void visit(long key, byte value) {
+                if (value == SwipeRevealLayout.STATE_OPEN || value == SwipeRevealLayout.STATE_OPENING) {
+                    ids[count[0]++] = key;
+                }
+            }
+        });
+
+        final long[] openIds = Arrays.copyOf(ids, count[0]);
+        Arrays.sort(openIds);
+        return openIds;
+    }
+
+    /**
+     * Replaces the recorded states with the ids saved by {@link #getOpenIds()}. Rows are
+     * opened without animation the next time they are bound.
+     */
+    public void restoreOpenIds(long[] openIds) {
+        clear();
+        if (openIds == null) {
+            return;
+        }
+
+        // with a single open slot only the last one is kept
+        final int first = mOpenOnlyOne ? Math.max(0, openIds.length - 1) : 0;
+        for (int i = first; i < openIds.length; i++) {
+            mStates.put(openIds[i], (byte) SwipeRevealLayout.STATE_OPEN);
+        }
+    }
+
+    /**
+     * Forgets every recorded state. Rows are closed the next time they are bound.
+     */
+    public void clear() {
+        mStates.clear();
+        mOpenedBinding = null;
+    }
+
+    private void onRowStateChanged(RowBinding binding, int state) {
+        if (state == SwipeRevealLayout.STATE_CLOSE) {
+            // closed is the default, keep the table as small as the number of open rows
+            mStates.remove(binding.mId);
+        } else {
+            mStates.put(binding.mId, (byte) state);
+        }
+
+        if (!mOpenOnlyOne) {
+            return;
+        }
+
+        if (state == SwipeRevealLayout.STATE_DRAGGING
+                || state == SwipeRevealLayout.STATE_OPENING
+                || state == SwipeRevealLayout.STATE_OPEN) {
+
+            if (mOpenedBinding != null && mOpenedId != binding.mId) {
+                closeOpened();
+            }
+
+            mOpenedBinding = binding;
+            mOpenedId = binding.mId;
+        } else if (state == SwipeRevealLayout.STATE_CLOSE
+                && mOpenedBinding == binding && mOpenedId == binding.mId) {
+            mOpenedBinding = null;
+        }
+    }
+
+    private void closeOpened() {
+        final RowBinding opened = mOpenedBinding;
+        final long openedId = mOpenedId;
+
+        mOpenedBinding = null;
+        mStates.remove(openedId);
+
+        // the row may have been recycled for another item since it was opened
+        if (opened.mBound && opened.mId == openedId) {
+            opened.mLayout.close(true);
+        }
+    }
+
+    private final class RowBinding implements SwipeRevealLayout.DragStateChangeListener {
+        final SwipeStateBinder mOwner = SwipeStateBinder.this;
+        final SwipeRevealLayout mLayout;
+        long mId;
+        boolean mBound;
+
+        RowBinding(SwipeRevealLayout layout) {
+            mLayout = layout;
+        }
+
+        @Override
+        public void onDragStateChanged(int state) {
+            if (mBound) {
+                onRowStateChanged(this, state);
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import androidx.core.os.TraceCompat;
+
+/**
+ * Named trace sections around the measure, layout, touch and scroll work of the rows and
+ * the create and bind work of the adapter, so that a jank frame can be attributed to one
+ * of them. Every call site is guarded by {@code BuildConfig.SWIPE_TRACING}, a compile
+ * time constant that is only true for debug builds made with {@code -PswipeTracing}:
+ * in any other build the sections are compiled out and cost nothing.
+ * <p>
+ * Sections go to the system trace by default, see {@link #setSink(Sink)} to collect them
+ * in memory instead. Sections must begin and end on the main thread.
+ */
+public final class SwipeTrace {
+
+    public static final String ROW_MEASURE = "SwipeRevealLayout.onMeasure";
+    public static final String ROW_LAYOUT = "SwipeRevealLayout.onLayout";
+    public static final String ROW_INTERCEPT_TOUCH = "SwipeRevealLayout.onInterceptTouchEvent";
+    public static final String ROW_TOUCH = "SwipeRevealLayout.onTouchEvent";
+    public static final String ROW_COMPUTE_SCROLL = "SwipeRevealLayout.computeScroll";
+    public static final String ADAPTER_CREATE = "MainListAdapter.onCreateViewHolder";
+    public static final String ADAPTER_BIND = "MainListAdapter.onBindViewHolder";
+
+    /**
+     * Receives the sections, nested sections end before the section they are in.
+     */
+    public interface Sink {
+        void beginSection(String name);
+
+        void endSection();
+    }
+
+    /**
+     * Writes the sections to the system trace, shown by systrace and Perfetto.
+     */
+    public static final Sink SYSTEM_TRACE = new Sink() {
+        @Override
+        public void beginSection(String name) {
+            TraceCompat.beginSection(name);
+        }
+
+        @Override
+        public void endSection() {
+            TraceCompat.endSection();
+        }
+    };
+
+    private static Sink sink = SYSTEM_TRACE;
+
+    private SwipeTrace() {
+    }
+
+    /**
+     * @param newSink receives the sections from now on, null for the system trace.
+     */
+    public static void setSink(Sink newSink) {
+        sink = newSink != null ? newSink : SYSTEM_TRACE;
+    }
+
+    public static Sink getSink() {
+        return sink;
+    }
+
+    public static void beginSection(String name) {
+        sink.beginSection(name);
+    }
+
+    public static void endSection() {
+        sink.endSection();
+    }
+}
@@ -0,0 +1,210 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Message;
+import android.util.LruCache;
+
+import androidx.annotation.MainThread;
+import androidx.core.text.PrecomputedTextCompat;
+
+/**
+ * Row titles measured and laid out ahead of binding on a background looper, so that
+ * binding a row only hands the precomputed text to its view. The results are kept in an
+ * LRU cache keyed by title and text params, so rows with a different font or size never
+ * receive text measured for another style.
+ * Prefetching is called on every bind and allocates nothing on the main thread: requests
+ * go into a fixed set of slots and reach the looper as pooled messages. Requests finding
+ * every slot busy are dropped, their rows measure the title themselves if it is not
+ * ready by the time they are bound.
+ * Apart from the background work itself, all methods must be called on the main thread.
+ */
+public class TitleTextCache {
+
+    private static final class Key {
+        String title;
+        PrecomputedTextCompat.Params params;
+
+        Key(String title, PrecomputedTextCompat.Params params) {
+            this.title = title;
+            this.params = params;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) o;
+            return title.equals(other.title) && params.equals(other.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * title.hashCode() + params.hashCode();
+        }
+    }
+
+    /**
+     * A title waiting for, or being precomputed on, the background looper.
+     */
+    private static final class Request {
+        String title;
+        PrecomputedTextCompat.Params params;
+        boolean busy;
+    }
+
+    /**
+     * More than a page of titles, the most a single prefetch asks for.
+     */
+    private static final int MAX_PENDING = 64;
+
+    private static final int MSG_PRECOMPUTE = 1;
+
+    private final LruCache<Key, PrecomputedTextCompat> cache;
+    private final Handler handler;
+
+    /**
+     * Titles handed to the looper and not cached yet, guarded by itself.
+     */
+    private final Request[] pending = new Request[MAX_PENDING];
+
+    /**
+     * Reused for lookups on the main thread, never stored in the cache.
+     */
+    private final Key lookupKey = new Key(null, null);
+
+    private int hitCount = 0;
+    private int missCount = 0;
+
+    /**
+     * @param maxEntries number of precomputed titles kept.
+     * @param looper     runs the text measurement, off the main thread.
+     */
+    public TitleTextCache(int maxEntries, Looper looper) {
+        this.cache = new LruCache<>(maxEntries);
+        for (int i = 0; i < pending.length; i++) {
+            pending[i] = new Request();
+        }
+        this.handler = new Handler(looper, new Handler.Callback() {
+            @Override
+            public boolean handleMessage(Message msg) {
+                precompute(pending[msg.arg1]);
+                return true;
+            }
+        });
+    }
+
+    /**
+     * @return the precomputed title, or null if it is not ready yet.
+     */
+    @MainThread
+    public PrecomputedTextCompat get(String title, PrecomputedTextCompat.Params params) {
+        lookupKey.title = title;
+        lookupKey.params = params;
+        final PrecomputedTextCompat text = cache.get(lookupKey);
+        lookupKey.title = null;
+        lookupKey.params = null;
+
+        if (text != null) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        return text;
+    }
+
+    /**
+     * Precomputes the title on the executor unless it is cached or already being computed.
+     */
+    @MainThread
+    public void prefetch(String title, PrecomputedTextCompat.Params params) {
+        lookupKey.title = title;
+        lookupKey.params = params;
+        final boolean cached = cache.get(lookupKey) != null;
+        lookupKey.title = null;
+        lookupKey.params = null;
+
+        if (cached) {
+            return;
+        }
+
+        int free = -1;
+        synchronized (pending) {
+            for (int i = 0; i < pending.length; i++) {
+                final Request request = pending[i];
+                if (!request.busy) {
+                    if (free < 0) {
+                        free = i;
+                    }
+                } else if (request.title.equals(title) && request.params.equals(params)) {
+                    return;
+                }
+            }
+
+            if (free < 0) {
+                return;
+            }
+            pending[free].title = title;
+            pending[free].params = params;
+            pending[free].busy = true;
+        }
+
+        handler.sendMessage(handler.obtainMessage(MSG_PRECOMPUTE, free, 0));
+    }
+
+    /**
+     * Runs on the background looper.
+     */
+    private void precompute(Request request) {
+        final String title;
+        final PrecomputedTextCompat.Params params;
+        synchronized (pending) {
+            title = request.title;
+            params = request.params;
+        }
+
+        // LruCache is synchronized, the result is published straight from this thread
+        cache.put(new Key(title, params), PrecomputedTextCompat.create(title, params));
+        synchronized (pending) {
+            request.title = null;
+            request.params = null;
+            request.busy = false;
+        }
+    }
+
+    /**
+     * @return the number of get calls that found the title precomputed.
+     */
+    public int getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of get calls that did not.
+     */
+    public int getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return the share of get calls that found the title precomputed, 0 before any call.
+     */
+    public float getHitRate() {
+        final int lookups = hitCount + missCount;
+        return lookups == 0 ? 0f : hitCount / (float) lookups;
+    }
+
+    public void resetStats() {
+        hitCount = 0;
+        missCount = 0;
+    }
+
+    /**
+     * Drops every precomputed title, titles still being computed are cached when done.
+     */
+    @MainThread
+    public void clear() {
+        cache.evictAll();
+    }
+}
@@ -0,0 +1,153 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link SwipeTrace.Sink} that aggregates the sections in memory instead of tracing them:
+ * a count, a total and a histogram of the durations per section name, with power of two
+ * nanosecond buckets. Works on the plain JVM, for tests and benchmarks without a system
+ * trace. Apart from the first section of a name, recording allocates nothing.
+ * Must be used from a single thread.
+ */
+public final class TraceHistogramSink implements SwipeTrace.Sink {
+
+    /**
+     * Bucket i counts the durations d with 2^i <= d < 2^(i+1) ns, bucket 0 also counts 0.
+     */
+    public static final int BUCKET_COUNT = 40;
+
+    private static final int MAX_DEPTH = 32;
+
+    private static final class Stats {
+        long count;
+        long totalNanos;
+        long maxNanos;
+        final long[] buckets = new long[BUCKET_COUNT];
+    }
+
+    private final Map<String, Stats> stats = new HashMap<>();
+
+    private final String[] openNames = new String[MAX_DEPTH];
+    private final long[] openStarts = new long[MAX_DEPTH];
+    private int depth = 0;
+
+    @Override
+    public void beginSection(String name) {
+        if (depth == MAX_DEPTH) {
+            throw new IllegalStateException("sections nested deeper than " + MAX_DEPTH);
+        }
+
+        openNames[depth] = name;
+        openStarts[depth] = System.nanoTime();
+        depth++;
+    }
+
+    @Override
+    public void endSection() {
+        final long end = System.nanoTime();
+        if (depth == 0) {
+            throw new IllegalStateException("endSection without beginSection");
+        }
+
+        depth--;
+        final String name = openNames[depth];
+        openNames[depth] = null;
+        record(name, end - openStarts[depth]);
+    }
+
+    /**
+     * @return the number of sections of that name that ended.
+     */
+    public long getCount(String name) {
+        final Stats s = stats.get(name);
+        return s == null ? 0 : s.count;
+    }
+
+    public long getTotalNanos(String name) {
+        final Stats s = stats.get(name);
+        return s == null ? 0 : s.totalNanos;
+    }
+
+    public long getMaxNanos(String name) {
+        final Stats s = stats.get(name);
+        return s == null ? 0 : s.maxNanos;
+    }
+
+    /**
+     * @return a copy of the histogram of that name, see {@link #BUCKET_COUNT}.
+     */
+    public long[] getBuckets(String name) {
+        final Stats s = stats.get(name);
+        return s == null ? new long[BUCKET_COUNT] : s.buckets.clone();
+    }
+
+    /**
+     * @param fraction between 0 and 1, 0.99 for the 99th percentile.
+     * @return the upper bound of the bucket holding that fraction of the durations, 0 if
+     * no section of that name ended.
+     */
+    public long getPercentileNanos(String name, float fraction) {
+        final Stats s = stats.get(name);
+        if (s == null || s.count == 0) {
+            return 0;
+        }
+
+        final long rank = Math.max(1, (long) Math.ceil(fraction * s.count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += s.buckets[i];
+            if (seen >= rank) {
+                return Math.min(1L << (i + 1), s.maxNanos);
+            }
+        }
+        return s.maxNanos;
+    }
+
+    /**
+     * @return the names of the sections that ended, sorted.
+     */
+    public List<String> getNames() {
+        final List<String> names = new ArrayList<>(stats.keySet());
+        Collections.sort(names);
+        return names;
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    /**
+     * Writes one line per section name: count, total, p50, p99 and max.
+     */
+    public void dump(Appendable out) throws IOException {
+        for (String name : getNames()) {
+            out.append(name)
+                    .append(": count ").append(Long.toString(getCount(name)))
+                    .append(", total ").append(Long.toString(getTotalNanos(name) / 1000)).append("us")
+                    .append(", p50 ").append(Long.toString(getPercentileNanos(name, 0.5f) / 1000)).append("us")
+                    .append(", p99 ").append(Long.toString(getPercentileNanos(name, 0.99f) / 1000)).append("us")
+                    .append(", max ").append(Long.toString(getMaxNanos(name) / 1000)).append("us")
+                    .append('\n');
+        }
+    }
+
+    private void record(String name, long nanos) {
+        Stats s = stats.get(name);
+        if (s == null) {
+            s = new Stats();
+            stats.put(name, s);
+        }
+
+        s.count++;
+        s.totalNanos += nanos;
+        s.maxNanos = Math.max(s.maxNanos, nanos);
+
+        final int bucket = nanos <= 1 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+        s.buckets[Math.min(bucket, BUCKET_COUNT - 1)]++;
+    }
+}
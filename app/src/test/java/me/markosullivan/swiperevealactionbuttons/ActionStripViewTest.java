@@ -0,0 +1,87 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import android.graphics.Rect;
+import android.view.View;
+import android.view.accessibility.AccessibilityNodeInfo;
+import android.view.accessibility.AccessibilityNodeProvider;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The actions of the strip as accessibility services see them: one virtual view each.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ActionStripViewTest {
+
+    private static final int WIDTH = 400;
+    private static final int HEIGHT = 100;
+
+    private ActionStripView strip;
+    private int clickedIndex = -1;
+
+    @Before
+    public void setUp() {
+        strip = new ActionStripView(ApplicationProvider.getApplicationContext());
+        strip.addAction(null, 0xff0000ff, "Info");
+        strip.addAction(null, 0xff00ff00, "Edit");
+        strip.setOnActionClickListener(new ActionStripView.OnActionClickListener() {
+            @Override
+            public void onActionClick(ActionStripView view, int index) {
+                clickedIndex = index;
+            }
+        });
+        strip.measure(
+                View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        strip.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    @Test
+    public void eachAction_isAVirtualViewWithItsDescription() {
+        final AccessibilityNodeProvider provider = strip.getAccessibilityNodeProvider();
+        assertNotNull(provider);
+
+        final AccessibilityNodeInfo host = provider.createAccessibilityNodeInfo(AccessibilityNodeProvider.HOST_VIEW_ID);
+        assertEquals(2, host.getChildCount());
+
+        final AccessibilityNodeInfo info = provider.createAccessibilityNodeInfo(0);
+        final AccessibilityNodeInfo edit = provider.createAccessibilityNodeInfo(1);
+        assertEquals("Info", info.getContentDescription().toString());
+        assertEquals("Edit", edit.getContentDescription().toString());
+        assertTrue(edit.isClickable());
+
+        // anchored to the end, the edit slot is the last one
+        final Rect bounds = new Rect();
+        edit.getBoundsInParent(bounds);
+        assertEquals(WIDTH, bounds.right);
+        assertEquals(0, bounds.top);
+        assertEquals(HEIGHT, bounds.bottom);
+        assertEquals(1, strip.getActionIndexAt(bounds.left + 1, HEIGHT / 2f));
+    }
+
+    @Test
+    public void clickOnVirtualView_clicksTheAction() {
+        final AccessibilityNodeProvider provider = strip.getAccessibilityNodeProvider();
+
+        assertTrue(provider.performAction(1, AccessibilityNodeInfo.ACTION_CLICK, null));
+        assertEquals(1, clickedIndex);
+    }
+
+    @Test
+    public void hiddenActions_areNotExposed() {
+        strip.setRevealFraction(0f);
+
+        final AccessibilityNodeProvider provider = strip.getAccessibilityNodeProvider();
+        final AccessibilityNodeInfo host = provider.createAccessibilityNodeInfo(AccessibilityNodeProvider.HOST_VIEW_ID);
+        assertEquals(0, host.getChildCount());
+    }
+}
@@ -0,0 +1,102 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.annotation.LooperMode.Mode.PAUSED;
+
+/**
+ * Counts the bytes the main thread allocates while the adapter binds rows to meals whose
+ * pages and titles are ready, which is the steady state of a scroll: it must be none.
+ * Uses the flat rows, whose card is the app's own view. The holders are not attached, so
+ * the framework has nothing to lay out or draw during the binds.
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(PAUSED)
+public class BindAllocationTest {
+
+    private static final int HOLDER_COUNT = 8;
+    private static final int POSITION_COUNT = 40;
+    private static final int ROUNDS = 20;
+
+    private MealListHarness harness;
+    private MainListAdapter adapter;
+    private final RecyclerView.ViewHolder[] holders = new RecyclerView.ViewHolder[HOLDER_COUNT];
+
+    @Before
+    public void setUp() {
+        harness = new MealListHarness(1_000, true, false);
+        adapter = harness.getAdapter();
+        for (int i = 0; i < HOLDER_COUNT; i++) {
+            holders[i] = adapter.createViewHolder(harness.getRecyclerView(), MainListAdapter.VIEW_TYPE_FLAT);
+        }
+
+        // until every title is precomputed and the tables have grown to size
+        final TitleTextCache titles = adapter.getTitleTextCache();
+        MealListHarness.waitUntil(new MealListHarness.Condition() {
+            @Override
+            public boolean isMet() {
+                titles.resetStats();
+                bindRound(0);
+                return titles.getMissCount() == 0;
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        harness.destroy();
+    }
+
+    @Test
+    public void bind_allocatesNothing() {
+        assertTrue("no per-thread allocation counter on this JVM", isAllocationCountingSupported());
+
+        final long first = allocatedBytes();
+        final long overhead = allocatedBytes() - first;
+        adapter.resetStats();
+
+        final long before = allocatedBytes();
+        for (int round = 0; round < ROUNDS; round++) {
+            bindRound(round);
+        }
+        final long allocated = allocatedBytes() - before - overhead;
+
+        assertEquals(ROUNDS * POSITION_COUNT, adapter.getBindCount());
+        assertEquals("bytes allocated by " + adapter.getBindCount() + " binds", 0, allocated);
+    }
+
+    /**
+     * Binds every position once, shifting which holder gets which position each round.
+     */
+    private void bindRound(int round) {
+        for (int position = 0; position < POSITION_COUNT; position++) {
+            adapter.onBindViewHolder(holders[(position + round) % HOLDER_COUNT], position);
+        }
+    }
+
+    private static boolean isAllocationCountingSupported() {
+        return ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .isThreadAllocatedMemoryEnabled();
+    }
+
+    /**
+     * @return the bytes allocated by this thread so far. The call may allocate a little
+     * itself, which is measured and subtracted.
+     */
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
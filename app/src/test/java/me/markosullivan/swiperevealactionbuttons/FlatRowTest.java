@@ -0,0 +1,116 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.annotation.LooperMode.Mode.PAUSED;
+
+/**
+ * Flat rows drawn by a {@link MealCardView} against the card rows they replace: the views
+ * each row is made of and the measure and layout passes the list runs on them.
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(PAUSED)
+public class FlatRowTest {
+
+    private static final int SCROLLED_ROWS = 200;
+
+    private MealListHarness harness;
+    private int laidOutViews;
+
+    @After
+    public void tearDown() {
+        if (harness != null) {
+            harness.destroy();
+        }
+    }
+
+    @Test
+    public void newFlatRow_laysOutFewerViewsThanACardRow() {
+        harness = new MealListHarness(100, false, false);
+
+        final int cardViews = layOutNewRow(MainListAdapter.VIEW_TYPE_CARD);
+        final int flatViews = layOutNewRow(MainListAdapter.VIEW_TYPE_FLAT);
+
+        assertTrue("card row: " + cardViews + " views laid out, flat row: " + flatViews,
+                flatViews < cardViews);
+    }
+
+    @Test
+    public void scroll_flatRowsTakeNoMorePassesThanCardRows() {
+        final long[] card = scroll(false);
+        final long[] flat = scroll(true);
+
+        // per bound row, the lists do not show the same number of rows per screen
+        assertTrue("card rows: " + card[1] + " measures for " + card[0] + " binds, flat rows: "
+                        + flat[1] + " for " + flat[0],
+                flat[1] * card[0] <= card[1] * flat[0]);
+        assertTrue("card rows: " + card[2] + " layouts for " + card[0] + " binds, flat rows: "
+                        + flat[2] + " for " + flat[0],
+                flat[2] * card[0] <= card[2] * flat[0]);
+    }
+
+    /**
+     * Lays out a new row of the view type at the size of the rows of the list.
+     *
+     * @return the views of the row that were laid out, the row included.
+     */
+    private int layOutNewRow(int viewType) {
+        final RecyclerView list = harness.getRecyclerView();
+        final View row = harness.getAdapter().createViewHolder(list, viewType).itemView;
+        countLayouts(row);
+
+        laidOutViews = 0;
+        row.measure(
+                View.MeasureSpec.makeMeasureSpec(list.getWidth(), View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(list.getChildAt(0).getHeight(), View.MeasureSpec.EXACTLY));
+        row.layout(0, 0, row.getMeasuredWidth(), row.getMeasuredHeight());
+        return laidOutViews;
+    }
+
+    private void countLayouts(View view) {
+        view.addOnLayoutChangeListener(new View.OnLayoutChangeListener() {
+            @Override
+            public void onLayoutChange(View v, int left, int top, int right, int bottom,
+                                       int oldLeft, int oldTop, int oldRight, int oldBottom) {
+                laidOutViews++;
+            }
+        });
+
+        if (view instanceof ViewGroup) {
+            final ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                countLayouts(group.getChildAt(i));
+            }
+        }
+    }
+
+    /**
+     * @return the binds, then the measure and the layout passes of the rows, while
+     * {@link #SCROLLED_ROWS} rows of a new list go by.
+     */
+    private long[] scroll(boolean flatRows) {
+        if (harness != null) {
+            harness.destroy();
+        }
+        harness = new MealListHarness(2_000, flatRows, false);
+        harness.resetStats();
+
+        harness.scrollDown(SCROLLED_ROWS);
+
+        return new long[]{
+                harness.getAdapter().getBindCount(),
+                harness.sumMeasureCounts(),
+                harness.sumLayoutCounts()
+        };
+    }
+}
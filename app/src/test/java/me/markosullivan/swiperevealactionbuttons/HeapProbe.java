@@ -0,0 +1,59 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+/**
+ * Measures the heap retained by freshly created objects, for {@link MemoryBudget}.
+ * The measurement forces garbage collections and reads the used heap around them, so it
+ * is only meaningful while nothing else allocates: run it on an idle app, with a count
+ * large enough to drown the noise, never from production code.
+ */
+public final class HeapProbe {
+
+    /**
+     * Creates one of the objects to measure, typically an inflated row.
+     */
+    public interface Factory {
+        Object create();
+    }
+
+    private static final int GC_PASSES = 3;
+
+    private HeapProbe() {
+    }
+
+    /**
+     * @return the bytes of heap in use once everything unreachable was collected.
+     */
+    public static long usedHeapAfterGc() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < GC_PASSES; i++) {
+            runtime.gc();
+            System.runFinalization();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Creates {@code count} objects, keeps them reachable and measures the heap they retain
+     * together, including anything they share that did not exist before.
+     *
+     * @return the retained bytes of all the objects, divide by count for one.
+     */
+    public static long measureRetainedBytes(Factory factory, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("count must be positive: " + count);
+        }
+
+        final Object[] retained = new Object[count];
+        final long before = usedHeapAfterGc();
+        for (int i = 0; i < count; i++) {
+            retained[i] = factory.create();
+        }
+        final long after = usedHeapAfterGc();
+
+        // the objects must still be reachable when the second reading is taken
+        if (retained[count - 1] == null) {
+            throw new IllegalStateException("factory returned null");
+        }
+        return after - before;
+    }
+}
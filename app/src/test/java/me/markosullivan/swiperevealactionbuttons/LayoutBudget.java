@@ -0,0 +1,75 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+/**
+ * Checked-in budget for the layout and bind work of the meal list while it scrolls.
+ * A scroll run collects the counters of {@link MainListAdapter} and of every
+ * {@link SwipeRevealLayout} row and passes them to {@link #verify}, which fails as soon
+ * as one of them goes over budget. Raising a value here should be a reviewed change.
+ */
+public final class LayoutBudget {
+
+    /**
+     * onMeasure passes per row, per bind of that row.
+     */
+    public static final float MAX_MEASURES_PER_BIND = 2f;
+
+    /**
+     * onLayout passes per row, per bind of that row.
+     */
+    public static final float MAX_LAYOUTS_PER_BIND = 2f;
+
+    /**
+     * onCreateViewHolder calls, as a multiple of the number of rows visible at once.
+     * Anything above this means rows are not being recycled.
+     */
+    public static final float MAX_CREATES_PER_VISIBLE_ROW = 3f;
+
+    /**
+     * Average wall time of one onBindViewHolder call.
+     */
+    public static final long MAX_AVERAGE_BIND_NANOS = 500_000L;
+
+    private LayoutBudget() {
+    }
+
+    /**
+     * @param visibleRows  rows visible at once on the screen the run was made on.
+     * @param createCount  {@link MainListAdapter#getCreateCount()}.
+     * @param bindCount    {@link MainListAdapter#getBindCount()}.
+     * @param bindNanos    {@link MainListAdapter#getBindTimeNanos()}.
+     * @param measureCount sum of {@link SwipeRevealLayout#getMeasureCount()} over the rows.
+     * @param layoutCount  sum of {@link SwipeRevealLayout#getLayoutCount()} over the rows.
+     * @throws IllegalStateException listing every counter that went over budget.
+     */
+    public static void verify(int visibleRows, int createCount, int bindCount, long bindNanos,
+                              long measureCount, long layoutCount) {
+        final StringBuilder overBudget = new StringBuilder();
+
+        if (createCount > MAX_CREATES_PER_VISIBLE_ROW * visibleRows) {
+            overBudget.append("\n  onCreateViewHolder: ").append(createCount)
+                    .append(" for ").append(visibleRows).append(" visible rows");
+        }
+
+        if (bindCount > 0) {
+            if (measureCount > MAX_MEASURES_PER_BIND * bindCount) {
+                overBudget.append("\n  onMeasure: ").append(measureCount)
+                        .append(" for ").append(bindCount).append(" binds");
+            }
+
+            if (layoutCount > MAX_LAYOUTS_PER_BIND * bindCount) {
+                overBudget.append("\n  onLayout: ").append(layoutCount)
+                        .append(" for ").append(bindCount).append(" binds");
+            }
+
+            final long averageBindNanos = bindNanos / bindCount;
+            if (averageBindNanos > MAX_AVERAGE_BIND_NANOS) {
+                overBudget.append("\n  onBindViewHolder: ").append(averageBindNanos)
+                        .append(" ns on average");
+            }
+        }
+
+        if (overBudget.length() > 0) {
+            throw new IllegalStateException("Layout budget exceeded:" + overBudget);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import static org.robolectric.annotation.LooperMode.Mode.PAUSED;
+
+/**
+ * Scrolls the meal list of {@link MainActivity} and holds the layout and bind work to the
+ * {@link LayoutBudget}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(PAUSED)
+public class LayoutBudgetTest {
+
+    private MealListHarness harness;
+
+    @After
+    public void tearDown() {
+        if (harness != null) {
+            harness.destroy();
+        }
+    }
+
+    @Test
+    public void scrollThrough10kMeals_cardRows() {
+        harness = new MealListHarness(10_000, false, false);
+        harness.resetStats();
+
+        harness.scrollDown(10_000);
+
+        verifyBudget();
+    }
+
+    @Test
+    public void scrollThrough10kMeals_flatRows() {
+        harness = new MealListHarness(10_000, true, false);
+        harness.resetStats();
+
+        harness.scrollDown(10_000);
+
+        verifyBudget();
+    }
+
+    @Test
+    public void scrollAcross100kMeals() {
+        harness = new MealListHarness(100_000, false, false);
+        harness.resetStats();
+
+        // the start, the middle and the end of the list, the pages in between are skipped
+        harness.scrollDown(2_000);
+        harness.jumpTo(50_000);
+        harness.scrollDown(2_000);
+        harness.jumpTo(98_000);
+        harness.scrollDown(2_000);
+
+        verifyBudget();
+    }
+
+    private void verifyBudget() {
+        final MainListAdapter adapter = harness.getAdapter();
+        LayoutBudget.verify(harness.getVisibleRowCount(),
+                adapter.getCreateCount(),
+                adapter.getBindCount(),
+                adapter.getBindTimeNanos(),
+                harness.sumMeasureCounts(),
+                harness.sumLayoutCounts());
+    }
+}
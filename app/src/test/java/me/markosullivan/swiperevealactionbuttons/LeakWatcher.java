@@ -0,0 +1,77 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds objects that are still reachable after their owner is gone, for example the rows
+ * of a list after its activity is destroyed. Watched objects are only weakly referenced,
+ * the watcher itself never keeps them alive.
+ * All methods must be called from the same thread.
+ */
+public final class LeakWatcher {
+
+    private static final class WatchedReference extends WeakReference<Object> {
+        final String description;
+
+        WatchedReference(Object referent, String description, ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            this.description = description;
+        }
+    }
+
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+    private final Set<WatchedReference> watched = new HashSet<>();
+
+    /**
+     * Starts watching an object that is expected to become unreachable.
+     *
+     * @param description reported if the object is retained.
+     */
+    public void watch(Object object, String description) {
+        removeCollected();
+        watched.add(new WatchedReference(object, description, queue));
+    }
+
+    /**
+     * Collects the garbage and reports the watched objects that survived it.
+     *
+     * @return the descriptions of the retained objects, empty if none.
+     */
+    public List<String> findRetained() {
+        HeapProbe.usedHeapAfterGc();
+        removeCollected();
+
+        final List<String> retained = new ArrayList<>(watched.size());
+        for (WatchedReference reference : watched) {
+            retained.add(reference.description);
+        }
+        return retained;
+    }
+
+    /**
+     * @return the number of watched objects not known to be collected yet.
+     */
+    public int getWatchedCount() {
+        removeCollected();
+        return watched.size();
+    }
+
+    public void clear() {
+        watched.clear();
+        while (queue.poll() != null) {
+            // drained
+        }
+    }
+
+    private void removeCollected() {
+        WatchedReference reference;
+        while ((reference = (WatchedReference) queue.poll()) != null) {
+            watched.remove(reference);
+        }
+    }
+}
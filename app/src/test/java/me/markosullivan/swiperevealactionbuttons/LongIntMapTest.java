@@ -0,0 +1,53 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class LongIntMapTest {
+
+    private static final int MISSING = -1;
+
+    @Test
+    public void putGetRemove_matchAHashMapWhileGrowing() {
+        final LongIntMap map = new LongIntMap();
+        final Map<Long, Integer> expected = new HashMap<>();
+        final Random random = new Random(42);
+
+        // few distinct keys, so removes hit probe chains of colliding keys
+        for (int i = 0; i < 20_000; i++) {
+            final long key = random.nextInt(2_000) * 0x100000000L;
+            if (random.nextInt(3) == 0) {
+                map.remove(key);
+                expected.remove(key);
+            } else {
+                map.put(key, i);
+                expected.put(key, i);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (long k = 0; k < 2_000; k++) {
+            final long key = k * 0x100000000L;
+            final Integer value = expected.get(key);
+            assertEquals(value == null ? MISSING : value, map.get(key, MISSING));
+        }
+    }
+
+    @Test
+    public void remove_ofAMissingKey_changesNothing() {
+        final LongIntMap map = new LongIntMap();
+        map.put(7, 1);
+
+        map.remove(8);
+
+        assertEquals(1, map.size());
+        assertEquals(1, map.get(7, MISSING));
+        assertFalse(map.containsKey(8));
+    }
+}
@@ -0,0 +1,188 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import android.content.Intent;
+import android.os.Looper;
+import android.view.View;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.robolectric.Robolectric;
+import org.robolectric.android.controller.ActivityController;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.fail;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Launches {@link MainActivity} under Robolectric and drives its meal list the way a user
+ * scrolls it, waiting for the background page loads on the way. Keeps track of every row
+ * the list ever attached, so their counters can be summed after a run.
+ */
+final class MealListHarness {
+
+    interface Condition {
+        boolean isMet();
+    }
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private final ActivityController<MainActivity> controller;
+    private final RecyclerView recyclerView;
+    private final LinearLayoutManager layoutManager;
+    private final Set<SwipeRevealLayout> rows =
+            Collections.newSetFromMap(new IdentityHashMap<SwipeRevealLayout, Boolean>());
+
+    /**
+     * @param itemCount   generated meals, see {@link MainActivity#EXTRA_GENERATED_ITEM_COUNT}.
+     * @param flatRows    see {@link MainActivity#EXTRA_FLAT_ROWS}.
+     * @param rowGestures see {@link MainActivity#EXTRA_ROW_GESTURES}.
+     */
+    MealListHarness(int itemCount, boolean flatRows, boolean rowGestures) {
+        final Intent intent = new Intent(ApplicationProvider.getApplicationContext(), MainActivity.class)
+                .putExtra(MainActivity.EXTRA_GENERATED_ITEM_COUNT, itemCount)
+                .putExtra(MainActivity.EXTRA_FLAT_ROWS, flatRows)
+                .putExtra(MainActivity.EXTRA_ROW_GESTURES, rowGestures);
+        controller = Robolectric.buildActivity(MainActivity.class, intent).setup();
+
+        recyclerView = controller.get().findViewById(R.id.recycler_view);
+        layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        recyclerView.addOnChildAttachStateChangeListener(new RecyclerView.OnChildAttachStateChangeListener() {
+            @Override
+            public void onChildViewAttachedToWindow(View view) {
+                rows.add((SwipeRevealLayout) view);
+            }
+
+            @Override
+            public void onChildViewDetachedFromWindow(View view) {
+            }
+        });
+
+        waitUntil(new Condition() {
+            @Override
+            public boolean isMet() {
+                return getAdapter().getItemCount() > 0;
+            }
+        });
+        waitForVisibleRows();
+    }
+
+    MainActivity getActivity() {
+        return controller.get();
+    }
+
+    RecyclerView getRecyclerView() {
+        return recyclerView;
+    }
+
+    MainListAdapter getAdapter() {
+        return (MainListAdapter) recyclerView.getAdapter();
+    }
+
+    int getVisibleRowCount() {
+        return recyclerView.getChildCount();
+    }
+
+    /**
+     * @return every row attached to the list since the launch, pooled ones included.
+     */
+    List<SwipeRevealLayout> getRows() {
+        return new ArrayList<>(rows);
+    }
+
+    /**
+     * Zeroes the counters of the adapter and of every row seen so far.
+     */
+    void resetStats() {
+        getAdapter().resetStats();
+        for (SwipeRevealLayout row : rows) {
+            row.resetPassCounts();
+        }
+    }
+
+    long sumMeasureCounts() {
+        long sum = 0;
+        for (SwipeRevealLayout row : rows) {
+            sum += row.getMeasureCount();
+        }
+        return sum;
+    }
+
+    long sumLayoutCounts() {
+        long sum = 0;
+        for (SwipeRevealLayout row : rows) {
+            sum += row.getLayoutCount();
+        }
+        return sum;
+    }
+
+    /**
+     * Scrolls down a screen at a time until {@code rowCount} more rows went by or the end of
+     * the list is reached, letting each screen load before the next.
+     */
+    void scrollDown(int rowCount) {
+        final int target = Math.min(layoutManager.findLastVisibleItemPosition() + rowCount,
+                getAdapter().getItemCount() - 1);
+        while (layoutManager.findLastVisibleItemPosition() < target) {
+            recyclerView.scrollBy(0, recyclerView.getHeight());
+            waitForVisibleRows();
+        }
+    }
+
+    void jumpTo(int position) {
+        recyclerView.scrollToPosition(position);
+        waitForVisibleRows();
+    }
+
+    void destroy() {
+        controller.pause().stop().destroy();
+        idleMainLooper();
+    }
+
+    /**
+     * Runs the main looper until the condition holds, the background threads of the list
+     * post their results to it.
+     */
+    static void waitUntil(Condition condition) {
+        final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (true) {
+            idleMainLooper();
+            if (condition.isMet()) {
+                return;
+            }
+            if (System.currentTimeMillis() > deadline) {
+                fail("timed out waiting on the main looper");
+            }
+
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("interrupted");
+            }
+        }
+    }
+
+    static void idleMainLooper() {
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+
+    private void waitForVisibleRows() {
+        waitUntil(new Condition() {
+            @Override
+            public boolean isMet() {
+                final PagedMealSource source = getAdapter().getPagedSource();
+                final int first = layoutManager.findFirstVisibleItemPosition();
+                final int last = layoutManager.findLastVisibleItemPosition();
+                return source == null || first < 0
+                        || (source.peekTitle(first) != null && source.peekTitle(last) != null);
+            }
+        });
+    }
+}
@@ -0,0 +1,167 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.robolectric.annotation.LooperMode.Mode.PAUSED;
+
+/**
+ * Checks the trigram search against a plain substring scan of 20,000 meals in the store,
+ * including queries that narrow the previous results and searches after the store changed.
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(PAUSED)
+public class MealSearchIndexTest {
+
+    private static final int MEAL_COUNT = 20_000;
+
+    private static final String[] MEALS = {
+            "Green Thai Curry", "Granola", "Poached Eggs", "Spaghetti", "Apple Pie",
+            "Grilled Cheese Sandwich", "Vegetable Soup", "Chicken Noodles", "Fajitas",
+            "Chicken Pot Pie", "Pasta and cauliflower casserole with chicken",
+            "Vegetable stir-fry", "Sweet potato and orange soup", "Vegetable Broth"
+    };
+
+    private MealStore store;
+    private MealSearchIndex index;
+    private List<Meal> expectedSource;
+
+    private String lastQuery;
+    private List<Meal> lastResults;
+
+    @Before
+    public void setUp() {
+        store = new MealStore(ApplicationProvider.getApplicationContext(), MEAL_COUNT) {
+            @Override
+            protected List<String> getSeedMeals() {
+                final List<String> meals = new ArrayList<>(MEAL_COUNT);
+                for (int i = 0; i < MEAL_COUNT; i++) {
+                    meals.add(MEALS[i % MEALS.length] + " #" + (i + 1));
+                }
+                return meals;
+            }
+        };
+
+        expectedSource = readStore();
+
+        index = new MealSearchIndex(new MealSearchIndex.Callback() {
+            @Override
+            public void onResults(String query, List<Meal> results) {
+                lastQuery = query;
+                lastResults = results;
+            }
+        });
+        index.build(store);
+    }
+
+    @After
+    public void tearDown() {
+        index.close();
+        store.close();
+    }
+
+    @Test
+    public void matchesSubstringScan() {
+        assertEquals(MEAL_COUNT, expectedSource.size());
+
+        final String[] queries = {
+                "c", "ch", "chi", "chic", "chicken", "chicken n", "Chicken N", "soup",
+                "oup #1", "#19999", "zzz", "e", "veg", "vegetable s", "tab", "a #2", "pie #"
+        };
+        for (String query : queries) {
+            assertSameMeals(query, scan(query), search(query));
+        }
+    }
+
+    @Test
+    public void unrelatedQueryAfterNarrowing_searchesEveryMeal() {
+        search("chicken");
+        search("chicken pot");
+
+        assertSameMeals("soup", scan("soup"), search("soup"));
+    }
+
+    @Test
+    public void onlyTheLastSearchIsDelivered() {
+        index.search("chicken");
+        index.search("soup");
+
+        assertSameMeals("soup", scan("soup"), awaitResults("soup"));
+    }
+
+    @Test
+    public void reseededStore_isSearchedAgainAfterTheRebuild() {
+        search("soup");
+
+        final List<String> soups = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            soups.add("Pumpkin Soup #" + (i + 1));
+        }
+        store.reseed(soups);
+        expectedSource = readStore();
+        index.build(store);
+
+        // the search shown runs again on the new index, without old ids
+        assertSameMeals("soup", scan("soup"), awaitResults("soup"));
+        assertSameMeals("pumpkin", scan("pumpkin"), search("pumpkin"));
+    }
+
+    private List<Meal> readStore() {
+        final List<Meal> meals = new ArrayList<>(MEAL_COUNT);
+        final long[] ids = new long[MEAL_COUNT];
+        final String[] titles = new String[MEAL_COUNT];
+        final int loaded = store.loadPage(0, MEAL_COUNT, ids, titles);
+        for (int i = 0; i < loaded; i++) {
+            meals.add(new Meal(ids[i], titles[i]));
+        }
+        return meals;
+    }
+
+    private List<Meal> search(String query) {
+        index.search(query);
+        return awaitResults(query);
+    }
+
+    private List<Meal> awaitResults(final String query) {
+        MealListHarness.waitUntil(new MealListHarness.Condition() {
+            @Override
+            public boolean isMet() {
+                return query.equals(lastQuery);
+            }
+        });
+        final List<Meal> results = lastResults;
+        lastQuery = null;
+        lastResults = null;
+        return results;
+    }
+
+    private List<Meal> scan(String query) {
+        final String lower = query.toLowerCase(Locale.ROOT);
+        final List<Meal> matches = new ArrayList<>();
+        for (Meal meal : expectedSource) {
+            if (meal.getTitle().toLowerCase(Locale.ROOT).contains(lower)) {
+                matches.add(meal);
+            }
+        }
+        return matches;
+    }
+
+    private static void assertSameMeals(String query, List<Meal> expected, List<Meal> actual) {
+        assertEquals(query, expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(query, expected.get(i).getId(), actual.get(i).getId());
+            assertEquals(query, expected.get(i).getTitle(), actual.get(i).getTitle());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import java.util.List;
+
+/**
+ * Checked-in budget for the heap held by the rows of the meal list. A run measures the
+ * rows with {@link HeapProbe}, watches them with a {@link LeakWatcher} once the list and
+ * its activity are destroyed, and passes the results to {@link #verify}, which fails as
+ * soon as one of them goes over budget. Raising a value here should be a reviewed change.
+ */
+public final class MemoryBudget {
+
+    /**
+     * Heap retained by one inflated row, {@link SwipeRevealLayout} and its children.
+     */
+    public static final long MAX_RETAINED_BYTES_PER_ROW = 16 * 1024L;
+
+    /**
+     * Heap retained by 1,000 rows waiting in the RecycledViewPool, holders included.
+     */
+    public static final long MAX_RETAINED_BYTES_PER_1000_POOLED_ROWS = 17 * 1024 * 1024L;
+
+    /**
+     * Rows, adapters or activities still reachable after the activity is destroyed.
+     */
+    public static final int MAX_RETAINED_AFTER_DESTROY = 0;
+
+    private MemoryBudget() {
+    }
+
+    /**
+     * @param rowCount             rows measured on their own.
+     * @param rowBytes             {@link HeapProbe#measureRetainedBytes} of those rows.
+     * @param pooledRowCount       rows measured inside a RecycledViewPool.
+     * @param pooledRowBytes       {@link HeapProbe#measureRetainedBytes} of the pooled rows.
+     * @param retainedAfterDestroy {@link LeakWatcher#findRetained()} after the destroy.
+     * @throws IllegalStateException listing every measurement that went over budget.
+     */
+    public static void verify(int rowCount, long rowBytes, int pooledRowCount, long pooledRowBytes,
+                              List<String> retainedAfterDestroy) {
+        final StringBuilder overBudget = new StringBuilder();
+
+        if (rowCount > 0 && rowBytes > MAX_RETAINED_BYTES_PER_ROW * rowCount) {
+            overBudget.append("\n  row: ").append(rowBytes / rowCount).append(" bytes");
+        }
+
+        if (pooledRowCount > 0
+                && pooledRowBytes * 1000 > MAX_RETAINED_BYTES_PER_1000_POOLED_ROWS * pooledRowCount) {
+            overBudget.append("\n  1000 pooled rows: ")
+                    .append(pooledRowBytes * 1000 / pooledRowCount).append(" bytes");
+        }
+
+        if (retainedAfterDestroy.size() > MAX_RETAINED_AFTER_DESTROY) {
+            overBudget.append("\n  retained after destroy: ").append(retainedAfterDestroy);
+        }
+
+        if (overBudget.length() > 0) {
+            throw new IllegalStateException("Memory budget exceeded:" + overBudget);
+        }
+    }
+}
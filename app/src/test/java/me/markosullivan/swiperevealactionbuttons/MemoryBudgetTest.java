@@ -0,0 +1,138 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import android.os.SystemClock;
+import android.view.LayoutInflater;
+import android.view.MotionEvent;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import java.util.List;
+
+import static org.robolectric.annotation.LooperMode.Mode.PAUSED;
+
+/**
+ * Measures the heap held by the rows of the meal list of {@link MainActivity}, then
+ * destroys the activity mid-swipe and holds the results to the {@link MemoryBudget}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(PAUSED)
+public class MemoryBudgetTest {
+
+    private static final int ROW_COUNT = 200;
+    private static final int POOLED_ROW_COUNT = 500;
+
+    /**
+     * Time the background threads of the list get to wind down after the destroy.
+     */
+    private static final long RETAINED_TIMEOUT_MILLIS = 5_000;
+
+    private MealListHarness harness;
+
+    @After
+    public void tearDown() {
+        if (harness != null) {
+            harness.destroy();
+        }
+    }
+
+    @Test
+    public void rows_stayWithinTheMemoryBudget() {
+        harness = new MealListHarness(1_000, false, false);
+        // every measured row is inflated inside the measurement, none comes pre-inflated
+        harness.getAdapter().setRowViewPool(null);
+
+        final long rowBytes = measureRows();
+        final long pooledRowBytes = measurePooledRows();
+
+        final LeakWatcher watcher = watchList();
+        startSwipe();
+        harness.destroy();
+        harness = null;
+
+        MemoryBudget.verify(ROW_COUNT, rowBytes, POOLED_ROW_COUNT, pooledRowBytes, findRetained(watcher));
+    }
+
+    private long measureRows() {
+        final RecyclerView list = harness.getRecyclerView();
+        final LayoutInflater inflater = LayoutInflater.from(list.getContext());
+        return HeapProbe.measureRetainedBytes(new HeapProbe.Factory() {
+            @Override
+            public Object create() {
+                return inflater.inflate(MainListAdapter.getRowLayout(MainListAdapter.VIEW_TYPE_CARD), list, false);
+            }
+        }, ROW_COUNT);
+    }
+
+    private long measurePooledRows() {
+        final RecyclerView list = harness.getRecyclerView();
+        final MainListAdapter adapter = harness.getAdapter();
+        final RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        pool.setMaxRecycledViews(MainListAdapter.VIEW_TYPE_CARD, POOLED_ROW_COUNT);
+        return HeapProbe.measureRetainedBytes(new HeapProbe.Factory() {
+            @Override
+            public Object create() {
+                final RecyclerView.ViewHolder holder = adapter.createViewHolder(list, MainListAdapter.VIEW_TYPE_CARD);
+                pool.putRecycledView(holder);
+                return holder;
+            }
+        }, POOLED_ROW_COUNT);
+    }
+
+    private LeakWatcher watchList() {
+        final LeakWatcher watcher = new LeakWatcher();
+        watcher.watch(harness.getActivity(), "activity");
+        watcher.watch(harness.getAdapter(), "adapter");
+        final List<SwipeRevealLayout> rows = harness.getRows();
+        for (int i = 0; i < rows.size(); i++) {
+            watcher.watch(rows.get(i), "row " + i);
+        }
+        return watcher;
+    }
+
+    /**
+     * Drags the first row without releasing it, so its gesture frame counter reposts itself
+     * to the Choreographer when the activity goes away.
+     */
+    private void startSwipe() {
+        final RecyclerView list = harness.getRecyclerView();
+        final SwipeRevealLayout row = (SwipeRevealLayout) list.getChildAt(0);
+        row.setGestureRecorder(new SwipeGestureRecorder(4));
+
+        final float y = row.getTop() + row.getHeight() / 2f;
+        final long downTime = SystemClock.uptimeMillis();
+        long eventTime = downTime;
+        RowGestures.dispatch(list, downTime, eventTime, MotionEvent.ACTION_DOWN, row.getWidth() * 0.9f, y);
+        for (int i = 1; i <= 5; i++) {
+            eventTime += RowGestures.FRAME_MILLIS;
+            RowGestures.dispatch(list, downTime, eventTime, MotionEvent.ACTION_MOVE,
+                    row.getWidth() * (0.9f - 0.1f * i), y);
+        }
+        MealListHarness.idleMainLooper();
+    }
+
+    /**
+     * @return what the watcher still finds once the background threads of the list had
+     * the time to let go of their work.
+     */
+    private static List<String> findRetained(LeakWatcher watcher) {
+        final long deadline = System.currentTimeMillis() + RETAINED_TIMEOUT_MILLIS;
+        List<String> retained = watcher.findRetained();
+        while (!retained.isEmpty() && System.currentTimeMillis() < deadline) {
+            MealListHarness.idleMainLooper();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            retained = watcher.findRetained();
+        }
+        return retained;
+    }
+}
@@ -0,0 +1,154 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.widget.FrameLayout;
+
+import androidx.core.view.NestedScrollingParent;
+import androidx.core.view.ViewCompat;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.annotation.LooperMode.Mode.PAUSED;
+
+/**
+ * A row swiped inside a nested scrolling parent, and created with the nested scrolling
+ * attribute that View's constructor applies.
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(PAUSED)
+public class NestedScrollingTest {
+
+    private static final int STEPS = 8;
+
+    /**
+     * Consumes half of every horizontal move offered to it before the row.
+     */
+    private static final class HalvingParent extends FrameLayout implements NestedScrollingParent {
+        int acceptedAxes = ViewCompat.SCROLL_AXIS_NONE;
+        int preConsumed;
+        int consumed;
+        int unconsumed;
+        boolean stopped;
+
+        HalvingParent(Context context) {
+            super(context);
+        }
+
+        @Override
+        public boolean onStartNestedScroll(View child, View target, int axes) {
+            return (axes & ViewCompat.SCROLL_AXIS_HORIZONTAL) != 0;
+        }
+
+        @Override
+        public void onNestedScrollAccepted(View child, View target, int axes) {
+            acceptedAxes = axes;
+        }
+
+        @Override
+        public void onStopNestedScroll(View target) {
+            stopped = true;
+        }
+
+        @Override
+        public void onNestedScroll(View target, int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed) {
+            consumed += dxConsumed;
+            unconsumed += dxUnconsumed;
+        }
+
+        @Override
+        public void onNestedPreScroll(View target, int dx, int dy, int[] consumedOut) {
+            consumedOut[0] = dx / 2;
+            preConsumed += consumedOut[0];
+        }
+
+        @Override
+        public boolean onNestedFling(View target, float velocityX, float velocityY, boolean wasConsumed) {
+            return false;
+        }
+
+        @Override
+        public boolean onNestedPreFling(View target, float velocityX, float velocityY) {
+            return false;
+        }
+
+        @Override
+        public int getNestedScrollAxes() {
+            return acceptedAxes;
+        }
+    }
+
+    private MealListHarness harness;
+
+    @After
+    public void tearDown() {
+        if (harness != null) {
+            harness.destroy();
+        }
+    }
+
+    @Test
+    public void nestedScrollingAttribute_isAppliedByTheConstructor() {
+        final SwipeRevealLayout row = new SwipeRevealLayout(ApplicationProvider.<Context>getApplicationContext(),
+                Robolectric.buildAttributeSet()
+                        .addAttribute(android.R.attr.nestedScrollingEnabled, "false")
+                        .build());
+
+        assertFalse(row.isNestedScrollingEnabled());
+    }
+
+    @Test
+    public void horizontalSwipe_sharesEachMoveWithTheParent() {
+        harness = new MealListHarness(100, false, true);
+        final SwipeRevealLayout row = (SwipeRevealLayout) harness.getAdapter()
+                .createViewHolder(harness.getRecyclerView(), MainListAdapter.VIEW_TYPE_CARD).itemView;
+        final int width = harness.getRecyclerView().getWidth();
+        final int height = harness.getRecyclerView().getChildAt(0).getHeight();
+
+        final HalvingParent parent = new HalvingParent(row.getContext());
+        parent.addView(row);
+        parent.measure(
+                View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+        parent.layout(0, 0, width, height);
+
+        // the first move leaves the touch slop and locks the axis, the others are shared,
+        // even steps so the parent's halves add up exactly
+        final int step = 2 * (ViewConfiguration.get(row.getContext()).getScaledTouchSlop() / 2 + 1);
+        final float startX = (int) (width * 0.9f);
+        final float y = height / 2f;
+        final long downTime = SystemClock.uptimeMillis();
+        long eventTime = downTime;
+        RowGestures.dispatch(parent, downTime, eventTime, MotionEvent.ACTION_DOWN, startX, y);
+        for (int i = 1; i <= STEPS; i++) {
+            eventTime += RowGestures.FRAME_MILLIS;
+            RowGestures.dispatch(parent, downTime, eventTime, MotionEvent.ACTION_MOVE, startX - i * step, y);
+        }
+
+        final int sharedPx = (STEPS - 1) * step;
+        assertEquals(ViewCompat.SCROLL_AXIS_HORIZONTAL, parent.acceptedAxes);
+        assertEquals(sharedPx / 2, parent.preConsumed);
+        assertEquals(sharedPx / 2, parent.consumed);
+        assertEquals(0, parent.unconsumed);
+
+        // the main view follows the finger less what the parent consumed
+        final View mainView = row.getChildAt(1);
+        assertEquals(-(STEPS * step - parent.preConsumed), mainView.getLeft());
+
+        RowGestures.dispatch(parent, downTime, eventTime + RowGestures.FRAME_MILLIS,
+                MotionEvent.ACTION_CANCEL, startX - STEPS * step, y);
+        assertTrue(parent.stopped);
+    }
+}
@@ -0,0 +1,143 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.annotation.LooperMode.Mode.PAUSED;
+
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(PAUSED)
+public class PagedMealSourceTest {
+
+    private static final int MEAL_COUNT = 1_000;
+    private static final int PAGE_SIZE = 50;
+
+    private MealStore store;
+    private PagedMealSource source;
+
+    @Before
+    public void setUp() {
+        store = new MealStore(ApplicationProvider.getApplicationContext(), MEAL_COUNT) {
+            @Override
+            protected List<String> getSeedMeals() {
+                return meals("Meal", MEAL_COUNT);
+            }
+        };
+        source = new PagedMealSource(store, PAGE_SIZE, 3);
+        source.load();
+        waitForCount(MEAL_COUNT);
+    }
+
+    @After
+    public void tearDown() {
+        source.close();
+    }
+
+    @Test
+    public void loadPageAfterAndBefore_matchOffsetPages() {
+        final long[] offsetIds = new long[PAGE_SIZE];
+        final String[] offsetTitles = new String[PAGE_SIZE];
+        final long[] ids = new long[PAGE_SIZE];
+        final String[] titles = new String[PAGE_SIZE];
+
+        store.loadPage(PAGE_SIZE * 3, PAGE_SIZE, offsetIds, offsetTitles);
+
+        store.loadPage(PAGE_SIZE * 2, PAGE_SIZE, ids, titles);
+        assertEquals(PAGE_SIZE, store.loadPageAfter(ids[PAGE_SIZE - 1], PAGE_SIZE, ids, titles));
+        assertEquals(offsetTitles[0], titles[0]);
+        assertEquals(offsetTitles[PAGE_SIZE - 1], titles[PAGE_SIZE - 1]);
+
+        store.loadPage(PAGE_SIZE * 4, PAGE_SIZE, ids, titles);
+        assertEquals(PAGE_SIZE, store.loadPageBefore(ids[0], PAGE_SIZE, ids, titles));
+        assertEquals(offsetTitles[0], titles[0]);
+        assertEquals(offsetTitles[PAGE_SIZE - 1], titles[PAGE_SIZE - 1]);
+    }
+
+    @Test
+    public void scrollDownThenUp_readsEveryMealInOrder() {
+        for (int position = 0; position < MEAL_COUNT; position++) {
+            assertEquals("Meal " + position, titleAt(position));
+        }
+        // only three pages fit, the pages at the start were evicted on the way down
+        for (int position = MEAL_COUNT - 1; position >= 0; position--) {
+            assertEquals("Meal " + position, titleAt(position));
+        }
+    }
+
+    @Test
+    public void jump_readsThePageByOffset() {
+        assertEquals("Meal 777", titleAt(777));
+        assertEquals("Meal 123", titleAt(123));
+    }
+
+    @Test
+    public void placeholders_haveIdsOfTheirOwnUntilTheirPageLoads() {
+        final long first = source.getId(500);
+        final long second = source.getId(501);
+
+        assertTrue(PagedMealSource.isPlaceholderId(first));
+        assertTrue(PagedMealSource.isPlaceholderId(second));
+        assertNotEquals(first, second);
+        assertNotEquals(PagedMealSource.NO_ID, first);
+        assertEquals(first, source.getId(500));
+
+        assertFalse(PagedMealSource.isPlaceholderId(idAt(500)));
+    }
+
+    @Test
+    public void replaceMeals_reloadsCountAndTitles() {
+        final long oldId = idAt(0);
+
+        source.replaceMeals(meals("Soup", 120));
+        waitForCount(120);
+
+        assertEquals("Soup 0", titleAt(0));
+        assertEquals("Soup 119", titleAt(119));
+        assertNotEquals(oldId, idAt(0));
+    }
+
+    private String titleAt(final int position) {
+        MealListHarness.waitUntil(new MealListHarness.Condition() {
+            @Override
+            public boolean isMet() {
+                return source.getTitle(position) != null;
+            }
+        });
+        return source.getTitle(position);
+    }
+
+    private long idAt(int position) {
+        titleAt(position);
+        return source.getId(position);
+    }
+
+    private void waitForCount(final int count) {
+        MealListHarness.waitUntil(new MealListHarness.Condition() {
+            @Override
+            public boolean isMet() {
+                return source.getCount() == count;
+            }
+        });
+    }
+
+    private static List<String> meals(String prefix, int count) {
+        final List<String> meals = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            meals.add(prefix + " " + i);
+        }
+        return meals;
+    }
+}
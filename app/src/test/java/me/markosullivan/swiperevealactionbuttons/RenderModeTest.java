@@ -0,0 +1,110 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import android.view.View;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.annotation.LooperMode.Mode.PAUSED;
+
+/**
+ * A row of the meal list swiped open and closed in either render mode, with the layout
+ * passes each mode costs the row and its children.
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(PAUSED)
+public class RenderModeTest {
+
+    private static final int STEPS = 10;
+    private static final int SWIPES = 5;
+
+    private MealListHarness harness;
+    private SwipeRevealLayout row;
+    private int childLayouts;
+
+    @Before
+    public void setUp() {
+        harness = new MealListHarness(100, false, true);
+        row = (SwipeRevealLayout) harness.getRecyclerView().getChildAt(0);
+
+        // the first swipe inflates the actions, it is not part of either run
+        swipeOpen();
+        row.close(false);
+        MealListHarness.idleMainLooper();
+
+        final View.OnLayoutChangeListener counter = new View.OnLayoutChangeListener() {
+            @Override
+            public void onLayoutChange(View v, int left, int top, int right, int bottom,
+                                       int oldLeft, int oldTop, int oldRight, int oldBottom) {
+                childLayouts++;
+            }
+        };
+        row.getChildAt(0).addOnLayoutChangeListener(counter);
+        row.getChildAt(1).addOnLayoutChangeListener(counter);
+    }
+
+    @After
+    public void tearDown() {
+        harness.destroy();
+    }
+
+    @Test
+    public void swipes_translationModeLaysOutNoChild() {
+        final int layoutModeChildLayouts = swipeInMode(SwipeRevealLayout.RENDER_MODE_LAYOUT);
+        final int layoutModeRowPasses = row.getMeasureCount() + row.getLayoutCount();
+
+        final int translationModeChildLayouts = swipeInMode(SwipeRevealLayout.RENDER_MODE_TRANSLATION);
+        final int translationModeRowPasses = row.getMeasureCount() + row.getLayoutCount();
+
+        // close(false) lays the main view out again after every swipe in layout mode
+        assertTrue(layoutModeChildLayouts >= SWIPES);
+        assertEquals(0, translationModeChildLayouts);
+        assertTrue("translation mode: " + translationModeRowPasses + " row passes, layout mode: "
+                        + layoutModeRowPasses,
+                translationModeRowPasses <= layoutModeRowPasses);
+    }
+
+    @Test
+    public void openInTranslationMode_keepsTheMainViewInItsClosedRect() {
+        final View mainView = row.getChildAt(1);
+        final int closedLeft = mainView.getLeft();
+        row.setRenderMode(SwipeRevealLayout.RENDER_MODE_TRANSLATION);
+
+        swipeOpen();
+
+        assertTrue(row.isOpened());
+        assertEquals(closedLeft, mainView.getLeft());
+        assertEquals(-row.getChildAt(0).getWidth(), (int) mainView.getTranslationX());
+    }
+
+    /**
+     * Swipes the row open {@link #SWIPES} times in the render mode, closing it in between.
+     *
+     * @return the layout passes of the children, the pass counters of the row only cover
+     * those swipes.
+     */
+    private int swipeInMode(int renderMode) {
+        row.setRenderMode(renderMode);
+        row.resetPassCounts();
+        childLayouts = 0;
+
+        for (int i = 0; i < SWIPES; i++) {
+            swipeOpen();
+            assertTrue(row.isOpened());
+            row.close(false);
+            MealListHarness.idleMainLooper();
+        }
+        return childLayouts;
+    }
+
+    private void swipeOpen() {
+        RowGestures.swipeAndHold(row, row.getWidth() * 0.9f, row.getWidth() * 0.05f, row.getHeight() / 2f, STEPS);
+        MealListHarness.idleMainLooper();
+    }
+}
@@ -0,0 +1,66 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+/**
+ * Synthetic single finger gestures, dispatched to a view the way its parent would: the
+ * coordinates are in the view's own space and the events are one frame apart.
+ */
+final class RowGestures {
+
+    static final long FRAME_MILLIS = 16;
+
+    /**
+     * Moves in place at the end of {@link #swipeAndHold}, longer than the velocity horizon.
+     */
+    static final int HOLD_MOVES = 10;
+
+    private RowGestures() {
+    }
+
+    static void tap(View target, float x, float y) {
+        final long downTime = SystemClock.uptimeMillis();
+        dispatch(target, downTime, downTime, MotionEvent.ACTION_DOWN, x, y);
+        dispatch(target, downTime, downTime + FRAME_MILLIS, MotionEvent.ACTION_UP, x, y);
+    }
+
+    /**
+     * Moves from {@code fromX} to {@code toX} in {@code steps} moves of equal length and
+     * lifts the finger where it stopped.
+     */
+    static void swipe(View target, float fromX, float toX, float y, int steps) {
+        final long downTime = SystemClock.uptimeMillis();
+        long eventTime = downTime;
+        dispatch(target, downTime, eventTime, MotionEvent.ACTION_DOWN, fromX, y);
+        for (int i = 1; i <= steps; i++) {
+            eventTime += FRAME_MILLIS;
+            dispatch(target, downTime, eventTime, MotionEvent.ACTION_MOVE,
+                    fromX + (toX - fromX) * i / steps, y);
+        }
+        dispatch(target, downTime, eventTime + FRAME_MILLIS, MotionEvent.ACTION_UP, toX, y);
+    }
+
+    /**
+     * Like {@link #swipe}, then holds the finger still long enough for the release to have
+     * no velocity, so the row ends where the finger left it instead of flinging.
+     */
+    static void swipeAndHold(View target, float fromX, float toX, float y, int steps) {
+        final long downTime = SystemClock.uptimeMillis();
+        long eventTime = downTime;
+        dispatch(target, downTime, eventTime, MotionEvent.ACTION_DOWN, fromX, y);
+        for (int i = 1; i <= steps + HOLD_MOVES; i++) {
+            eventTime += FRAME_MILLIS;
+            dispatch(target, downTime, eventTime, MotionEvent.ACTION_MOVE,
+                    fromX + (toX - fromX) * Math.min(i, steps) / steps, y);
+        }
+        dispatch(target, downTime, eventTime + FRAME_MILLIS, MotionEvent.ACTION_UP, toX, y);
+    }
+
+    static void dispatch(View target, long downTime, long eventTime, int action, float x, float y) {
+        final MotionEvent event = MotionEvent.obtain(downTime, eventTime, action, x, y, 0);
+        target.dispatchTouchEvent(event);
+        event.recycle();
+    }
+}
@@ -0,0 +1,70 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import android.content.Context;
+import android.widget.FrameLayout;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import static org.junit.Assert.assertEquals;
+import static org.robolectric.annotation.LooperMode.Mode.PAUSED;
+
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(PAUSED)
+public class RowViewPoolTest {
+
+    private static final int CAPACITY = 4;
+
+    private Context context;
+    private FrameLayout parent;
+    private RowViewPool pool;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        parent = new FrameLayout(context);
+        pool = new RowViewPool(R.layout.list_item_main, CAPACITY);
+    }
+
+    @Test
+    public void preInflate_fillsThePoolUpToItsCapacity() {
+        pool.preInflate(context, parent, CAPACITY + 2);
+        waitForInflations();
+
+        assertEquals(CAPACITY, pool.size());
+    }
+
+    @Test
+    public void clearWhileInflating_leavesThePoolEmpty() {
+        pool.preInflate(context, parent, CAPACITY);
+        pool.clear();
+        waitForInflations();
+
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void clearWhileInflating_dropsTheRowsAskedForBefore() {
+        pool.preInflate(context, parent, CAPACITY);
+        pool.clear();
+        // the rows inflating for the first batch do not count against the second one
+        pool.preInflate(context, parent, 2);
+        waitForInflations();
+
+        assertEquals(2, pool.size());
+    }
+
+    private void waitForInflations() {
+        MealListHarness.waitUntil(new MealListHarness.Condition() {
+            @Override
+            public boolean isMet() {
+                return pool.getPendingCount() == 0;
+            }
+        });
+    }
+}
@@ -0,0 +1,121 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import android.view.View;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.annotation.LooperMode.Mode.PAUSED;
+
+/**
+ * Rows of the meal list dragged by the {@link SwipeController} of {@link MainActivity}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(PAUSED)
+public class SwipeControllerTest {
+
+    private static final int STEPS = 10;
+    private static final int MEASURED_ROWS = 500;
+    private static final int WARM_UP_ROWS = 20;
+
+    private MealListHarness harness;
+    private RecyclerView recyclerView;
+    private SwipeRevealLayout row;
+
+    @Before
+    public void setUp() {
+        harness = new MealListHarness(100, false, false);
+        recyclerView = harness.getRecyclerView();
+        row = (SwipeRevealLayout) recyclerView.getChildAt(0);
+    }
+
+    @After
+    public void tearDown() {
+        row.setTouchStatsEnabled(false);
+        harness.destroy();
+    }
+
+    @Test
+    public void controlledSwipe_feedsTheRowItsEvents() {
+        final SwipeGestureRecorder recorder = new SwipeGestureRecorder(4);
+        row.setGestureRecorder(recorder);
+        row.setTouchStatsEnabled(true);
+
+        // dragged past the open position, the row is held there and released without a fling
+        final float y = row.getTop() + row.getHeight() / 2f;
+        RowGestures.swipeAndHold(recyclerView, row.getWidth() * 0.9f, row.getWidth() * 0.05f, y, STEPS);
+        MealListHarness.idleMainLooper();
+
+        assertTrue(row.isOpened());
+        assertEquals(STEPS + RowGestures.HOLD_MOVES + 2, row.getTouchEventCount());
+        assertEquals(1, row.getInterceptCount());
+
+        final int[] endState = {-1};
+        assertEquals(1, recorder.drain(new SwipeGestureRecorder.Visitor() {
+            @Override
+            public void visit(long uptimeMillis, long downToCaptureNanos, long releaseToIdleNanos,
+                              int frames, int jankyFrames, int state) {
+                endState[0] = state;
+            }
+        }));
+        assertEquals(SwipeRevealLayout.STATE_OPEN, endState[0]);
+    }
+
+    /**
+     * A row that swiped itself keeps its ViewDragHelper for the next gesture, one dragged
+     * by the controller never creates one.
+     */
+    @Test
+    public void controlledRows_retainLessHeapThanSelfDraggedRows() {
+        final SwipeController controller = new SwipeController(recyclerView.getContext());
+        measureSwipedRows(WARM_UP_ROWS, null);
+        measureSwipedRows(WARM_UP_ROWS, controller);
+
+        final long selfDragged = measureSwipedRows(MEASURED_ROWS, null);
+        final long controlled = measureSwipedRows(MEASURED_ROWS, controller);
+
+        final long savedPerRow = (selfDragged - controlled) / MEASURED_ROWS;
+        assertTrue("self dragged rows: " + selfDragged / MEASURED_ROWS
+                        + " bytes each, controlled rows: " + controlled / MEASURED_ROWS
+                        + " bytes each, saved per row: " + savedPerRow,
+                savedPerRow > 0);
+    }
+
+    /**
+     * @param controller drives the rows, or null for rows dragging themselves.
+     * @return the heap retained by {@code count} new rows, each swiped open once.
+     */
+    private long measureSwipedRows(int count, final SwipeController controller) {
+        final MainListAdapter adapter = harness.getAdapter();
+        final int width = recyclerView.getWidth();
+        final int height = row.getHeight();
+        return HeapProbe.measureRetainedBytes(new HeapProbe.Factory() {
+            @Override
+            public Object create() {
+                final RecyclerView.ViewHolder holder =
+                        adapter.createViewHolder(recyclerView, MainListAdapter.VIEW_TYPE_CARD);
+                final SwipeRevealLayout newRow = (SwipeRevealLayout) holder.itemView;
+                newRow.measure(
+                        View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                        View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+                newRow.layout(0, 0, width, height);
+
+                if (controller != null) {
+                    // the row ignores its own touches, the controller would have opened it
+                    newRow.setSwipeController(controller);
+                }
+                RowGestures.swipeAndHold(newRow, width * 0.9f, width * 0.05f, height / 2f, STEPS);
+                newRow.open(false);
+                return holder;
+            }
+        }, count);
+    }
+}
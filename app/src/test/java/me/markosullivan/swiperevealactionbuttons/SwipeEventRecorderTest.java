@@ -0,0 +1,127 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.annotation.LooperMode.Mode.PAUSED;
+
+/**
+ * Gestures recorded on the rows of the meal list, replayed into a row or into the list,
+ * with the state they leave the row in.
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(PAUSED)
+public class SwipeEventRecorderTest {
+
+    private static final int STEPS = 10;
+    private static final int SWIPE_EVENTS = STEPS + RowGestures.HOLD_MOVES + 2;
+
+    /**
+     * Short enough for the list to keep the row attached while it scrolls.
+     */
+    private static final int VERTICAL_STEP_PX = 4;
+
+    private MealListHarness harness;
+    private SwipeRevealLayout row;
+    private final SwipeEventRecorder recorder = new SwipeEventRecorder();
+
+    @After
+    public void tearDown() {
+        harness.destroy();
+    }
+
+    @Test
+    public void swipe_replaysIntoTheRow() throws IOException {
+        launch(true);
+        RowGestures.swipeAndHold(row, row.getWidth() * 0.9f, row.getWidth() * 0.05f, row.getHeight() / 2f, STEPS);
+        assertTrue(row.isOpened());
+        assertEquals(SWIPE_EVENTS, recorder.getEventCount());
+
+        row.setEventRecorder(null);
+        row.close(false);
+        final SwipeEventRecorder.ReplayResult result = replay(row, false);
+
+        assertEquals(SWIPE_EVENTS, result.getEventCount());
+        assertEquals(SwipeRevealLayout.STATE_OPEN, result.getFinalState());
+        assertTrue(result.getTotalNanos() > 0);
+    }
+
+    @Test
+    public void tap_replaysIntoTheRow() throws IOException {
+        launch(true);
+        RowGestures.tap(row, row.getWidth() / 2f, row.getHeight() / 2f);
+
+        row.setEventRecorder(null);
+        final SwipeEventRecorder.ReplayResult result = replay(row, false);
+
+        assertEquals(2, result.getEventCount());
+        assertEquals(SwipeRevealLayout.STATE_CLOSE, result.getFinalState());
+    }
+
+    @Test
+    public void controlledSwipe_replaysIntoTheList() throws IOException {
+        launch(false);
+        final RecyclerView list = harness.getRecyclerView();
+        RowGestures.swipeAndHold(list, row.getWidth() * 0.9f, row.getWidth() * 0.05f,
+                row.getTop() + row.getHeight() / 2f, STEPS);
+        assertTrue(row.isOpened());
+        assertEquals(SWIPE_EVENTS, recorder.getEventCount());
+
+        row.setEventRecorder(null);
+        row.close(false);
+        final SwipeEventRecorder.ReplayResult result = replay(list, true);
+
+        assertEquals(SWIPE_EVENTS, result.getEventCount());
+        assertTrue(row.isOpened());
+    }
+
+    @Test
+    public void controlledVerticalGesture_isRecordedWhole() {
+        launch(false);
+        final RecyclerView list = harness.getRecyclerView();
+        final float x = row.getWidth() / 2f;
+        final float fromY = row.getTop() + row.getHeight() / 2f;
+
+        // the list takes the gesture over, the row keeps recording it up to the release
+        final long downTime = SystemClock.uptimeMillis();
+        long eventTime = downTime;
+        RowGestures.dispatch(list, downTime, eventTime, MotionEvent.ACTION_DOWN, x, fromY);
+        for (int i = 1; i <= STEPS; i++) {
+            eventTime += RowGestures.FRAME_MILLIS;
+            RowGestures.dispatch(list, downTime, eventTime, MotionEvent.ACTION_MOVE, x, fromY - i * VERTICAL_STEP_PX);
+        }
+        RowGestures.dispatch(list, downTime, eventTime + RowGestures.FRAME_MILLIS,
+                MotionEvent.ACTION_UP, x, fromY - STEPS * VERTICAL_STEP_PX);
+
+        assertEquals(STEPS + 2, recorder.getEventCount());
+        assertTrue(row.isClosed());
+    }
+
+    private void launch(boolean rowGestures) {
+        harness = new MealListHarness(100, false, rowGestures);
+        row = (SwipeRevealLayout) harness.getRecyclerView().getChildAt(0);
+        row.setEventRecorder(recorder);
+    }
+
+    private SwipeEventRecorder.ReplayResult replay(View target, boolean parentCoordinates)
+            throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        recorder.writeTo(out);
+        return SwipeEventRecorder.replay(new ByteArrayInputStream(out.toByteArray()), target, parentCoordinates);
+    }
+}
@@ -0,0 +1,159 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The swipe decisions on both drag edges, for a 1000 px wide row closed at left 0 that
+ * reveals 300 px of actions.
+ */
+public class SwipePhysicsTest {
+
+    private static final int WIDTH = 1000;
+    private static final int REVEAL = 300;
+    private static final float MIN_FLING = 500;
+    private static final float SLOP = 16;
+
+    private SwipePhysics physics;
+
+    @Before
+    public void setUp() {
+        physics = new SwipePhysics();
+        physics.setGeometry(0, WIDTH, REVEAL);
+        physics.setMinFlingVelocity(MIN_FLING);
+        physics.setTouchSlop(SLOP);
+    }
+
+    @Test
+    public void clampLeft_leftEdge() {
+        physics.setDragEdge(SwipePhysics.EDGE_LEFT);
+
+        assertEquals(0, physics.clampLeft(-50));
+        assertEquals(0, physics.clampLeft(0));
+        assertEquals(120, physics.clampLeft(120));
+        assertEquals(REVEAL, physics.clampLeft(REVEAL));
+        assertEquals(REVEAL, physics.clampLeft(REVEAL + 50));
+    }
+
+    @Test
+    public void clampLeft_rightEdge() {
+        physics.setDragEdge(SwipePhysics.EDGE_RIGHT);
+
+        assertEquals(0, physics.clampLeft(50));
+        assertEquals(0, physics.clampLeft(0));
+        assertEquals(-120, physics.clampLeft(-120));
+        assertEquals(-REVEAL, physics.clampLeft(-REVEAL));
+        assertEquals(-REVEAL, physics.clampLeft(-REVEAL - 50));
+    }
+
+    @Test
+    public void shouldOpenOnRelease_leftEdge_followsPivotWhenSlow() {
+        physics.setDragEdge(SwipePhysics.EDGE_LEFT);
+
+        assertFalse(physics.shouldOpenOnRelease(0, 0));
+        assertFalse(physics.shouldOpenOnRelease(REVEAL / 2 - 1, 0));
+        assertTrue(physics.shouldOpenOnRelease(REVEAL / 2, 0));
+        assertTrue(physics.shouldOpenOnRelease(REVEAL, MIN_FLING - 1));
+    }
+
+    @Test
+    public void shouldOpenOnRelease_leftEdge_followsFling() {
+        physics.setDragEdge(SwipePhysics.EDGE_LEFT);
+
+        assertTrue(physics.shouldOpenOnRelease(10, MIN_FLING));
+        assertFalse(physics.shouldOpenOnRelease(REVEAL - 10, -MIN_FLING));
+    }
+
+    @Test
+    public void shouldOpenOnRelease_rightEdge_followsPivotWhenSlow() {
+        physics.setDragEdge(SwipePhysics.EDGE_RIGHT);
+
+        assertFalse(physics.shouldOpenOnRelease(0, 0));
+        assertFalse(physics.shouldOpenOnRelease(-REVEAL / 2, 0));
+        assertTrue(physics.shouldOpenOnRelease(-REVEAL / 2 - 1, 0));
+        assertTrue(physics.shouldOpenOnRelease(-REVEAL, -(MIN_FLING - 1)));
+    }
+
+    @Test
+    public void shouldOpenOnRelease_rightEdge_followsFling() {
+        physics.setDragEdge(SwipePhysics.EDGE_RIGHT);
+
+        assertTrue(physics.shouldOpenOnRelease(-10, -MIN_FLING));
+        assertFalse(physics.shouldOpenOnRelease(-REVEAL + 10, MIN_FLING));
+    }
+
+    @Test
+    public void getDistToClosestEdge_leftEdge() {
+        physics.setDragEdge(SwipePhysics.EDGE_LEFT);
+
+        assertEquals(0, physics.getDistToClosestEdge(0));
+        assertEquals(40, physics.getDistToClosestEdge(40));
+        assertEquals(REVEAL / 2, physics.getDistToClosestEdge(REVEAL / 2));
+        assertEquals(40, physics.getDistToClosestEdge(REVEAL - 40));
+        assertEquals(0, physics.getDistToClosestEdge(REVEAL));
+    }
+
+    @Test
+    public void getDistToClosestEdge_rightEdge() {
+        physics.setDragEdge(SwipePhysics.EDGE_RIGHT);
+
+        assertEquals(0, physics.getDistToClosestEdge(0));
+        assertEquals(40, physics.getDistToClosestEdge(-40));
+        assertEquals(REVEAL / 2, physics.getDistToClosestEdge(-REVEAL / 2));
+        assertEquals(40, physics.getDistToClosestEdge(-REVEAL + 40));
+        assertEquals(0, physics.getDistToClosestEdge(-REVEAL));
+    }
+
+    @Test
+    public void couldBecomeClick_leftEdge() {
+        physics.setDragEdge(SwipePhysics.EDGE_LEFT);
+        assertClickUntilSlop(100, 1);
+    }
+
+    @Test
+    public void couldBecomeClick_rightEdge() {
+        physics.setDragEdge(SwipePhysics.EDGE_RIGHT);
+        assertClickUntilSlop(900, -1);
+    }
+
+    @Test
+    public void couldBecomeClick_neverOutsideMainView() {
+        physics.accumulateDragDist(true, 100);
+
+        assertFalse(physics.couldBecomeClick(false));
+    }
+
+    @Test
+    public void accumulateDragDist_countsBothDirections() {
+        physics.accumulateDragDist(true, 100);
+        physics.accumulateDragDist(false, 110);
+        physics.accumulateDragDist(false, 104);
+
+        assertEquals(16, physics.getDragDist(), 0);
+        assertTrue(physics.shouldInitiateADrag());
+
+        physics.accumulateDragDist(true, 104);
+        assertEquals(0, physics.getDragDist(), 0);
+    }
+
+    /**
+     * Moves the touch one pixel at a time in the direction of the swipe, the sequence stays a
+     * click candidate until the slop is covered.
+     */
+    private void assertClickUntilSlop(float downX, int direction) {
+        physics.accumulateDragDist(true, downX);
+        assertTrue(physics.couldBecomeClick(true));
+
+        for (int i = 1; i < SLOP; i++) {
+            physics.accumulateDragDist(false, downX + direction * i);
+            assertTrue(physics.couldBecomeClick(true));
+        }
+
+        physics.accumulateDragDist(false, downX + direction * SLOP);
+        assertFalse(physics.couldBecomeClick(true));
+    }
+}
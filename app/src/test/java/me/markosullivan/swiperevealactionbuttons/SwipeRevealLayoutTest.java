@@ -0,0 +1,111 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import android.view.ViewConfiguration;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.robolectric.annotation.LooperMode.Mode.PAUSED;
+
+/**
+ * Rows of the meal list driving their own gestures, without a SwipeController.
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(PAUSED)
+public class SwipeRevealLayoutTest {
+
+    private MealListHarness harness;
+    private SwipeRevealLayout row;
+    private int touchSlop;
+
+    private final SwipeGestureRecorder recorder = new SwipeGestureRecorder(4);
+    private int lastEndState = -1;
+
+    @Before
+    public void setUp() {
+        harness = new MealListHarness(100, false, true);
+        row = (SwipeRevealLayout) harness.getRecyclerView().getChildAt(0);
+        touchSlop = ViewConfiguration.get(row.getContext()).getScaledTouchSlop();
+        row.setGestureRecorder(recorder);
+    }
+
+    @After
+    public void tearDown() {
+        harness.destroy();
+    }
+
+    @Test
+    public void tap_leavesTheActionsUninflated() {
+        RowGestures.tap(row, row.getWidth() / 2f, row.getHeight() / 2f);
+        MealListHarness.idleMainLooper();
+
+        assertNotNull(row.findViewById(R.id.actions_stub));
+        assertNull(row.findViewById(R.id.actions));
+    }
+
+    @Test
+    public void moveWithinSlop_leavesTheActionsUninflated() {
+        final float x = row.getWidth() / 2f;
+        RowGestures.swipe(row, x, x - touchSlop / 2f, row.getHeight() / 2f, 2);
+        MealListHarness.idleMainLooper();
+
+        assertNotNull(row.findViewById(R.id.actions_stub));
+    }
+
+    @Test
+    public void swipe_inflatesTheActions() {
+        final float x = row.getWidth() * 0.8f;
+        RowGestures.swipe(row, x, x - row.getWidth() / 2f, row.getHeight() / 2f, 20);
+        MealListHarness.idleMainLooper();
+
+        assertNull(row.findViewById(R.id.actions_stub));
+        assertNotNull(row.findViewById(R.id.actions));
+    }
+
+    @Test
+    public void tap_isNotRecorded() {
+        RowGestures.tap(row, row.getWidth() / 2f, row.getHeight() / 2f);
+        MealListHarness.idleMainLooper();
+
+        assertEquals(0, drain(new long[1]));
+    }
+
+    @Test
+    public void swipe_isCapturedWhenItLeavesTheSlop() {
+        // the first move is far past the slop, the capture comes with it, a frame after the down
+        RowGestures.swipeAndHold(row, row.getWidth() * 0.9f, row.getWidth() * 0.05f, row.getHeight() / 2f, 10);
+        MealListHarness.idleMainLooper();
+
+        final long[] downToCaptureNanos = new long[1];
+        assertEquals(1, drain(downToCaptureNanos));
+        assertEquals(RowGestures.FRAME_MILLIS * 1000000L, downToCaptureNanos[0]);
+        assertEquals(SwipeRevealLayout.STATE_OPEN, lastEndState);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void springParameters_rejectABouncingSpring() {
+        row.setSpringParameters(SwipeSpring.DEFAULT_STIFFNESS, 0.5f);
+    }
+
+    /**
+     * @param downToCaptureNanos receives the capture latency of the last gesture drained,
+     *                           {@link #lastEndState} its end state.
+     */
+    private int drain(final long[] downToCaptureNanos) {
+        return recorder.drain(new SwipeGestureRecorder.Visitor() {
+            @Override
+            public void visit(long uptimeMillis, long downToCapture, long releaseToIdleNanos,
+                              int frames, int jankyFrames, int endState) {
+                downToCaptureNanos[0] = downToCapture;
+                lastEndState = endState;
+            }
+        });
+    }
+}
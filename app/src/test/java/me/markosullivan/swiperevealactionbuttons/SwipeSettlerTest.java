@@ -0,0 +1,103 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import android.os.Looper;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+import static org.robolectric.annotation.LooperMode.Mode.PAUSED;
+
+/**
+ * Settles of a 1000 px wide row closed at left 0 that reveals 300 px of actions, advanced
+ * a frame at a time on the clock of the main looper.
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(PAUSED)
+public class SwipeSettlerTest {
+
+    private static final int WIDTH = 1000;
+    private static final int REVEAL = 300;
+    private static final int MAX_FRAMES = 200;
+
+    private SwipeSettler settler;
+
+    @Before
+    public void setUp() {
+        final SwipePhysics physics = new SwipePhysics();
+        physics.setDragEdge(SwipePhysics.EDGE_LEFT);
+        physics.setGeometry(0, WIDTH, REVEAL);
+        settler = new SwipeSettler(ApplicationProvider.getApplicationContext(), physics);
+    }
+
+    @Test
+    public void spring_endsOnTheTargetWithoutLeavingTheRange() {
+        assertTrue(settler.startSpring(0, REVEAL, 20_000));
+
+        final int frames = settle();
+        assertFalse(settler.isSpringRunning());
+        assertEquals(REVEAL, settler.getLeft());
+        assertTrue(frames > 1);
+    }
+
+    @Test
+    public void spring_atRestOnTheTarget_doesNotStart() {
+        assertFalse(settler.startSpring(REVEAL, REVEAL, 0));
+        assertFalse(settler.isSpringRunning());
+    }
+
+    @Test
+    public void scroll_endsOnTheTarget() {
+        assertTrue(settler.startScroll(REVEAL, 0));
+
+        settle();
+        assertEquals(0, settler.getLeft());
+        assertFalse(settler.startScroll(0, 0));
+    }
+
+    @Test
+    public void stop_leavesTheSpringWhereItIs() {
+        settler.startSpring(0, REVEAL, 0);
+        advanceFrame();
+        settler.computeSettle();
+        final int left = settler.getLeft();
+
+        settler.stop();
+
+        assertFalse(settler.isSpringRunning());
+        assertEquals(left, settler.getLeft());
+        assertTrue(left > 0 && left < REVEAL);
+    }
+
+    /**
+     * @return the frames the settle took, each left within the range of the main view.
+     */
+    private int settle() {
+        int frames = 0;
+        boolean running = true;
+        while (running) {
+            advanceFrame();
+            running = settler.computeSettle();
+            frames++;
+
+            final int left = settler.getLeft();
+            assertTrue("left " + left + " at frame " + frames, left >= 0 && left <= REVEAL);
+            assertTrue("still settling after " + MAX_FRAMES + " frames", frames < MAX_FRAMES);
+        }
+        return frames;
+    }
+
+    private static void advanceFrame() {
+        shadowOf(Looper.getMainLooper()).idleFor(RowGestures.FRAME_MILLIS, TimeUnit.MILLISECONDS);
+    }
+}
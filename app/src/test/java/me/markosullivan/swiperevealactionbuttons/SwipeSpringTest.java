@@ -0,0 +1,66 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SwipeSpringTest {
+
+    private static final float FRAME = 1 / 60f;
+    private static final int MAX_FRAMES = 600;
+
+    @Test
+    public void criticallyDamped_fromRest_neverOvershoots() {
+        final SwipeSpring spring = new SwipeSpring();
+        spring.start(0, 0, 300);
+
+        for (int i = 0; i < MAX_FRAMES && !spring.isAtRest(); i++) {
+            assertTrue(spring.advance(FRAME) <= 300);
+        }
+        assertTrue(spring.isAtRest());
+    }
+
+    @Test
+    public void criticallyDamped_withVelocityTowardsTarget_overshootsOnce() {
+        final SwipeSpring spring = new SwipeSpring();
+        spring.start(0, 20000, 300);
+
+        float max = 0;
+        int crossings = 0;
+        boolean past = false;
+        for (int i = 0; i < MAX_FRAMES && !spring.isAtRest(); i++) {
+            final float position = spring.advance(FRAME);
+            max = Math.max(max, position);
+            if (position > 300 != past) {
+                past = !past;
+                crossings++;
+            }
+        }
+
+        assertTrue("overshoot " + max, max > 300);
+        assertTrue("crossings " + crossings, crossings <= 2);
+        assertTrue(spring.isAtRest());
+    }
+
+    @Test
+    public void position_doesNotDependOnFrameRate() {
+        final SwipeSpring coarse = new SwipeSpring();
+        final SwipeSpring fine = new SwipeSpring();
+        coarse.start(0, 5000, 300);
+        fine.start(0, 5000, 300);
+
+        for (int i = 0; i < 10; i++) {
+            coarse.advance(FRAME * 4);
+            for (int j = 0; j < 4; j++) {
+                fine.advance(FRAME);
+            }
+            assertEquals(coarse.getPosition(), fine.getPosition(), 0.01f);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setParameters_rejectsZeroDamping() {
+        new SwipeSpring().setParameters(1000, 0);
+    }
+}
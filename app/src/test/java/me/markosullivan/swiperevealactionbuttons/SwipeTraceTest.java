@@ -0,0 +1,160 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import static org.robolectric.annotation.LooperMode.Mode.PAUSED;
+
+/**
+ * The trace sections of the meal list collected by a {@link TraceHistogramSink}, for rows
+ * swiped in either render mode and for card and flat rows scrolled by. The histograms are
+ * compared by the samples they hold, held to the gestures and to the counters of the rows
+ * and the adapter, the durations themselves depend on the machine.
+ * <p>
+ * The sections are compiled out unless tracing is on, run with
+ * {@code ./gradlew testDebugUnitTest -PswipeTracing}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(PAUSED)
+public class SwipeTraceTest {
+
+    private static final int STEPS = 10;
+    private static final int SWIPES = 20;
+    private static final int SCROLLED_ROWS = 200;
+
+    private final TraceHistogramSink sink = new TraceHistogramSink();
+    private MealListHarness harness;
+
+    @Before
+    public void setUp() {
+        assumeTrue("trace sections are compiled out, run with -PswipeTracing", BuildConfig.SWIPE_TRACING);
+        SwipeTrace.setSink(sink);
+    }
+
+    @After
+    public void tearDown() {
+        if (harness != null) {
+            harness.destroy();
+        }
+        SwipeTrace.setSink(null);
+    }
+
+    @Test
+    public void swipes_layoutVsTranslationRenderMode() {
+        harness = new MealListHarness(100, false, true);
+        final SwipeRevealLayout row = (SwipeRevealLayout) harness.getRecyclerView().getChildAt(0);
+        // the first swipe inflates the actions, it is not part of either run
+        swipeOpen(row);
+        row.close(false);
+        MealListHarness.idleMainLooper();
+
+        row.setRenderMode(SwipeRevealLayout.RENDER_MODE_LAYOUT);
+        traceSwipes(row);
+        final long layoutModeTouches = sumTouchBuckets();
+        final long layoutModeLayouts = sumBuckets(SwipeTrace.ROW_LAYOUT);
+
+        row.setRenderMode(SwipeRevealLayout.RENDER_MODE_TRANSLATION);
+        traceSwipes(row);
+        final long translationModeTouches = sumTouchBuckets();
+        final long translationModeLayouts = sumBuckets(SwipeTrace.ROW_LAYOUT);
+
+        // the same events go through the row, only the way it moves the main view differs
+        assertTrue(layoutModeTouches >= (long) SWIPES * (STEPS + RowGestures.HOLD_MOVES + 2));
+        assertEquals(layoutModeTouches, translationModeTouches);
+        assertTrue("translation mode laid the row out " + translationModeLayouts
+                        + " times, layout mode " + layoutModeLayouts,
+                translationModeLayouts <= layoutModeLayouts);
+    }
+
+    @Test
+    public void scroll_cardVsFlatRows() {
+        final long[] card = traceScroll(false);
+        final long[] flat = traceScroll(true);
+
+        // per bound row, the lists do not show the same number of rows per screen
+        assertTrue(flat[1] * card[0] <= card[1] * flat[0]);
+        assertTrue(flat[2] * card[0] <= card[2] * flat[0]);
+    }
+
+    /**
+     * Swipes the row open {@link #SWIPES} times, closing it in between, with the sink only
+     * holding the sections of those swipes.
+     */
+    private void traceSwipes(SwipeRevealLayout row) {
+        sink.reset();
+        for (int i = 0; i < SWIPES; i++) {
+            swipeOpen(row);
+            assertTrue(row.isOpened());
+            row.close(false);
+            MealListHarness.idleMainLooper();
+        }
+    }
+
+    private static void swipeOpen(SwipeRevealLayout row) {
+        RowGestures.swipeAndHold(row, row.getWidth() * 0.9f, row.getWidth() * 0.05f, row.getHeight() / 2f, STEPS);
+        MealListHarness.idleMainLooper();
+    }
+
+    private long sumTouchBuckets() {
+        return sumBuckets(SwipeTrace.ROW_INTERCEPT_TOUCH) + sumBuckets(SwipeTrace.ROW_TOUCH);
+    }
+
+    /**
+     * @return the samples in the histogram of the section, checked against its count and
+     * its longest duration.
+     */
+    private long sumBuckets(String name) {
+        final long[] buckets = sink.getBuckets(name);
+        long sum = 0;
+        int highest = -1;
+        for (int i = 0; i < buckets.length; i++) {
+            sum += buckets[i];
+            if (buckets[i] > 0) {
+                highest = i;
+            }
+        }
+
+        assertEquals(name, sink.getCount(name), sum);
+        if (highest > 0) {
+            // the longest section falls in the highest bucket that holds a sample
+            final long max = sink.getMaxNanos(name);
+            assertTrue(name, (1L << highest) <= max && max < (1L << (highest + 1)));
+        }
+        return sum;
+    }
+
+    /**
+     * Scrolls {@link #SCROLLED_ROWS} rows by on a new list, with the sink only holding the
+     * sections of that scroll.
+     *
+     * @return the bind, measure and layout samples of the histograms.
+     */
+    private long[] traceScroll(boolean flatRows) {
+        if (harness != null) {
+            harness.destroy();
+        }
+        harness = new MealListHarness(2_000, flatRows, false);
+        harness.resetStats();
+        sink.reset();
+
+        harness.scrollDown(SCROLLED_ROWS);
+
+        final MainListAdapter adapter = harness.getAdapter();
+        assertTrue(adapter.getBindCount() >= SCROLLED_ROWS);
+        assertEquals(adapter.getCreateCount(), sumBuckets(SwipeTrace.ADAPTER_CREATE));
+        final long binds = sumBuckets(SwipeTrace.ADAPTER_BIND);
+        final long measures = sumBuckets(SwipeTrace.ROW_MEASURE);
+        final long layouts = sumBuckets(SwipeTrace.ROW_LAYOUT);
+        assertEquals(adapter.getBindCount(), binds);
+        assertEquals(harness.sumMeasureCounts(), measures);
+        assertEquals(harness.sumLayoutCounts(), layouts);
+        return new long[]{binds, measures, layouts};
+    }
+}
@@ -0,0 +1,133 @@
+package me.markosullivan.swiperevealactionbuttons;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TraceHistogramSinkTest {
+
+    private static final long SLEEP_MILLIS = 2;
+
+    /**
+     * 2^20 ns, about a millisecond, below the sleep of the long sections.
+     */
+    private static final int SLEEP_BUCKET = 20;
+
+    private final TraceHistogramSink sink = new TraceHistogramSink();
+
+    @Test
+    public void nestedSections_areEachRecordedUnderTheirOwnName() throws InterruptedException {
+        sink.beginSection(SwipeTrace.ADAPTER_BIND);
+        sink.beginSection(SwipeTrace.ROW_MEASURE);
+        sink.endSection();
+        Thread.sleep(SLEEP_MILLIS);
+        sink.endSection();
+
+        assertEquals(1, sink.getCount(SwipeTrace.ADAPTER_BIND));
+        assertEquals(1, sink.getCount(SwipeTrace.ROW_MEASURE));
+        assertTrue(sink.getTotalNanos(SwipeTrace.ADAPTER_BIND) > sink.getTotalNanos(SwipeTrace.ROW_MEASURE));
+        assertEquals(Arrays.asList(SwipeTrace.ADAPTER_BIND, SwipeTrace.ROW_MEASURE), sink.getNames());
+    }
+
+    @Test
+    public void buckets_holdEachSectionByItsDuration() throws InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            sink.beginSection(SwipeTrace.ROW_LAYOUT);
+            sink.endSection();
+        }
+        sink.beginSection(SwipeTrace.ROW_LAYOUT);
+        Thread.sleep(SLEEP_MILLIS);
+        sink.endSection();
+
+        final long[] buckets = sink.getBuckets(SwipeTrace.ROW_LAYOUT);
+        long below = 0;
+        long above = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            if (i < SLEEP_BUCKET) {
+                below += buckets[i];
+            } else {
+                above += buckets[i];
+            }
+        }
+        assertEquals(11, below + above);
+        assertTrue(above >= 1);
+
+        // the slept section is the longest, its bucket is the highest and holds the maximum
+        final long max = sink.getMaxNanos(SwipeTrace.ROW_LAYOUT);
+        final int maxBucket = 63 - Long.numberOfLeadingZeros(max);
+        assertTrue(buckets[maxBucket] >= 1);
+        for (int i = maxBucket + 1; i < buckets.length; i++) {
+            assertEquals(0, buckets[i]);
+        }
+        assertTrue(max >= SLEEP_MILLIS * 1000000L);
+    }
+
+    @Test
+    public void percentiles_areBucketBoundsCappedByTheMaximum() throws InterruptedException {
+        for (int i = 0; i < 99; i++) {
+            sink.beginSection(SwipeTrace.ROW_TOUCH);
+            sink.endSection();
+        }
+        sink.beginSection(SwipeTrace.ROW_TOUCH);
+        Thread.sleep(SLEEP_MILLIS);
+        sink.endSection();
+
+        final long p50 = sink.getPercentileNanos(SwipeTrace.ROW_TOUCH, 0.5f);
+        final long p99 = sink.getPercentileNanos(SwipeTrace.ROW_TOUCH, 0.99f);
+        final long max = sink.getMaxNanos(SwipeTrace.ROW_TOUCH);
+        assertTrue(p50 <= p99);
+        assertTrue(p99 <= max);
+        assertEquals(max, sink.getPercentileNanos(SwipeTrace.ROW_TOUCH, 1f));
+        assertEquals(0, sink.getPercentileNanos(SwipeTrace.ROW_COMPUTE_SCROLL, 0.5f));
+    }
+
+    @Test
+    public void swipeTrace_sendsItsSectionsToTheSink() {
+        SwipeTrace.setSink(sink);
+        try {
+            SwipeTrace.beginSection(SwipeTrace.ADAPTER_CREATE);
+            SwipeTrace.endSection();
+        } finally {
+            SwipeTrace.setSink(null);
+        }
+
+        assertEquals(1, sink.getCount(SwipeTrace.ADAPTER_CREATE));
+        assertTrue(SwipeTrace.getSink() == SwipeTrace.SYSTEM_TRACE);
+    }
+
+    @Test
+    public void dump_writesOneLinePerSection() throws IOException {
+        sink.beginSection(SwipeTrace.ROW_MEASURE);
+        sink.endSection();
+        sink.beginSection(SwipeTrace.ROW_LAYOUT);
+        sink.endSection();
+
+        final StringBuilder out = new StringBuilder();
+        sink.dump(out);
+
+        final String[] lines = out.toString().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith(SwipeTrace.ROW_LAYOUT + ": count 1,"));
+        assertTrue(lines[1].startsWith(SwipeTrace.ROW_MEASURE + ": count 1,"));
+    }
+
+    @Test
+    public void reset_forgetsEverySection() {
+        sink.beginSection(SwipeTrace.ROW_MEASURE);
+        sink.endSection();
+
+        sink.reset();
+
+        assertEquals(0, sink.getCount(SwipeTrace.ROW_MEASURE));
+        assertTrue(sink.getNames().isEmpty());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void endSection_withoutBegin_throws() {
+        sink.endSection();
+    }
+}